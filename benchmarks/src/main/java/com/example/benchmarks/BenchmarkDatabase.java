@@ -0,0 +1,101 @@
+package com.example.benchmarks;
+
+import com.example.entity.Department;
+import com.example.repository.BulkImporter;
+import com.example.repository.CompanyRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A {@link CompanyRepository} on a private in-memory H2 database, seeded once
+ * per trial with {@link #employees} employees spread over {@link #DEPARTMENTS}
+ * departments. Everything else comes from persistence.xml, so the pool, batching
+ * and caches are configured as in the application.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+    static final int DEPARTMENTS = 100;
+    static final String[] SYLLABLES = {
+            "an", "binh", "cuong", "dung", "giang", "hoa", "hung", "khanh", "lan", "linh",
+            "minh", "nam", "ngoc", "phuong", "quang", "son", "thanh", "trang", "tuan", "vy"
+    };
+
+    @Param({"1000", "100000", "1000000"})
+    public int employees;
+
+    /** Whether name searches may use the trigram index instead of {@code LIKE}. */
+    @Param({"false"})
+    public boolean nameIndex;
+
+    CompanyRepository repository;
+    List<Department> departments;
+    /** A department in the middle of the id range. */
+    Long departmentId;
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("javax.persistence.jdbc.url", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        properties.put("javax.persistence.jdbc.user", "sa");
+        properties.put("javax.persistence.jdbc.password", "");
+        properties.put("javax.persistence.jdbc.driver", "org.h2.Driver");
+        properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        properties.put("hibernate.show_sql", "false");
+        properties.put("company.migrations.enabled", "false");
+        properties.put(CompanyRepository.NAME_INDEX_PROPERTY, Boolean.toString(nameIndex));
+        repository = new CompanyRepository(properties);
+
+        Path csv = Files.createTempFile("benchmark-employees", ".csv");
+        try {
+            writeCsv(csv, employees);
+            try (Reader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+                new BulkImporter(repository, 1_000, 50_000).importCsv(reader, null);
+            }
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+        while (nameIndex && !repository.isNameIndexReady()) {
+            Thread.sleep(10);
+        }
+
+        departments = repository.getAllDepartments();
+        departmentId = departments.get(departments.size() / 2).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        repository.close();
+    }
+
+    /** Employee names are three random syllables and the row number, e.g. {@code lanvyson 42}. */
+    private static void writeCsv(Path file, int rows) throws Exception {
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < rows; i++) {
+                writer.write("Department " + (i % DEPARTMENTS));
+                writer.write(',');
+                for (int s = 0; s < 3; s++) {
+                    writer.write(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+                }
+                writer.write(' ');
+                writer.write(Integer.toString(i));
+                writer.newLine();
+            }
+        }
+    }
+}
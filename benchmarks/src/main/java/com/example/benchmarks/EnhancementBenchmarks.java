@@ -0,0 +1,119 @@
+package com.example.benchmarks;
+
+import com.example.entity.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flush and load costs of a large persistence context, which is what bytecode
+ * enhancement changes. Run once on the default build and once on a build made
+ * with {@code -DskipEnhancement} to compare:
+ * <pre>
+ * mvn install -DskipTests [-DskipEnhancement] &amp;&amp; mvn -f benchmarks/pom.xml package
+ * java -jar benchmarks/target/benchmarks.jar EnhancementBenchmarks -p employees=100000
+ * </pre>
+ * Uses its own EntityManagerFactory on the seeded database, since the repository
+ * never keeps a persistence context open across calls.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnhancementBenchmarks {
+
+    @State(Scope.Thread)
+    public static class Context {
+        /** Managed employees in the persistence context being flushed. */
+        @Param({"10000"})
+        public int managed;
+
+        EntityManagerFactory emf;
+        EntityManager em;
+        List<Employee> employees;
+        long changes;
+
+        @Setup(Level.Trial)
+        public void open(BenchmarkDatabase db) {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("javax.persistence.jdbc.url", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+            properties.put("javax.persistence.jdbc.user", "sa");
+            properties.put("javax.persistence.jdbc.password", "");
+            properties.put("javax.persistence.jdbc.driver", "org.h2.Driver");
+            properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+            properties.put("hibernate.hbm2ddl.auto", "none");
+            properties.put("hibernate.cache.use_second_level_cache", "false");
+            properties.put("hibernate.cache.use_query_cache", "false");
+            properties.put("company.migrations.enabled", "false");
+            emf = Persistence.createEntityManagerFactory("CompanyPU", properties);
+        }
+
+        /** Loads the employees into a fresh context; the iteration's changes are rolled back. */
+        @Setup(Level.Iteration)
+        public void load() {
+            em = emf.createEntityManager();
+            em.getTransaction().begin();
+            employees = loadEmployees(em, managed);
+        }
+
+        @TearDown(Level.Iteration)
+        public void rollback() {
+            em.getTransaction().rollback();
+            em.close();
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            emf.close();
+        }
+    }
+
+    /** One changed employee among {@link Context#managed}: the flush has to find it. */
+    @Benchmark
+    public void flushOneChange(Context context) {
+        Employee employee = context.employees.get((int) (context.changes % context.employees.size()));
+        String name = employee.getName();
+        employee.setName(name.endsWith("*") ? name.substring(0, name.length() - 1) : name + "*");
+        context.changes++;
+        context.em.flush();
+    }
+
+    /** Loading the context; each employee's department is a lazy reference. */
+    @Benchmark
+    public List<Employee> loadContext(Context context) {
+        EntityManager em = context.emf.createEntityManager();
+        try {
+            return loadEmployees(em, context.managed);
+        } finally {
+            em.close();
+        }
+    }
+
+    private static List<Employee> loadEmployees(EntityManager em, int count) {
+        List<Employee> employees = em.createQuery("SELECT e FROM Employee e ORDER BY e.id", Employee.class)
+                .setMaxResults(count)
+                .getResultList();
+        // Touches the reference only, as list views do; the department is not loaded.
+        employees.forEach(employee -> employee.getDepartment().getId());
+        return employees;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.benchmarks;
+
+import com.example.dto.DepartmentSummary;
+import com.example.dto.EmployeeSummary;
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-only {@code CompanyRepository} calls. Results are returned so JMH keeps
+ * them alive; the database is not modified.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadBenchmarks {
+    // Matches roughly one name in seven; "khanhquang" is far more selective.
+    private static final String COMMON_TERM = "linh";
+    private static final String RARE_TERM = "khanhquang";
+
+    @Benchmark
+    public List<Department> getAllDepartments(BenchmarkDatabase db) {
+        return db.repository.getAllDepartments();
+    }
+
+    @Benchmark
+    public long countDepartments(BenchmarkDatabase db) {
+        return db.repository.countDepartments();
+    }
+
+    @Benchmark
+    public List<DepartmentSummary> getDepartmentsPage(BenchmarkDatabase db) {
+        return db.repository.getDepartmentsPage(0, 50);
+    }
+
+    @Benchmark
+    public Long findDepartmentKeyAfter(BenchmarkDatabase db) {
+        return db.repository.findDepartmentKeyAfter(0, 50);
+    }
+
+    @Benchmark
+    public DepartmentSummary findDepartmentByNamePrefix(BenchmarkDatabase db) {
+        return db.repository.findDepartmentByNamePrefix("department 5", null);
+    }
+
+    @Benchmark
+    public long countDepartmentsBefore(BenchmarkDatabase db) {
+        return db.repository.countDepartmentsBefore(db.departmentId);
+    }
+
+    @Benchmark
+    public List<Department> findDepartmentsByName(BenchmarkDatabase db) {
+        return db.repository.findDepartmentsByName("ment 5");
+    }
+
+    @Benchmark
+    public List<Employee> getEmployeesByDepartment(BenchmarkDatabase db) {
+        return db.repository.getEmployeesByDepartment(db.departmentId);
+    }
+
+    @Benchmark
+    public Long countEmployeesInDepartment(BenchmarkDatabase db) {
+        return db.repository.countEmployeesInDepartment(db.departmentId);
+    }
+
+    @Benchmark
+    public Map<Long, Long> getHeadcounts(BenchmarkDatabase db) {
+        return db.repository.getHeadcounts();
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> getEmployeesPage(BenchmarkDatabase db) {
+        return db.repository.getEmployeesPage(db.departmentId, 0, 100);
+    }
+
+    @Benchmark
+    public Long findEmployeeKeyAfter(BenchmarkDatabase db) {
+        return db.repository.findEmployeeKeyAfter(db.departmentId, 0, 1_000);
+    }
+
+    @Benchmark
+    public void streamEmployees(BenchmarkDatabase db, Blackhole blackhole) {
+        db.repository.streamEmployees(db.departmentId, blackhole::consume);
+    }
+
+    @Benchmark
+    public List<Employee> findEmployeesByName(BenchmarkDatabase db) {
+        return db.repository.findEmployeesByName(RARE_TERM);
+    }
+
+    @Benchmark
+    public List<Employee> findEmployeesByNameLimited(BenchmarkDatabase db) {
+        return db.repository.findEmployeesByName(COMMON_TERM, 50);
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> findEmployeeSummariesByName(BenchmarkDatabase db) {
+        return db.repository.findEmployeeSummariesByName(RARE_TERM);
+    }
+
+    @Benchmark
+    public Long countEmployeesByName(BenchmarkDatabase db) {
+        return db.repository.countEmployeesByName(COMMON_TERM);
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> findEmployeesByNamePage(BenchmarkDatabase db) {
+        return db.repository.findEmployeesByNamePage(COMMON_TERM, 0, 100);
+    }
+
+    @Benchmark
+    public Long findEmployeeKeyAfterByName(BenchmarkDatabase db) {
+        return db.repository.findEmployeeKeyAfterByName(COMMON_TERM, 0, 1_000);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.benchmarks;
+
+import com.example.dto.EmployeeSummary;
+import com.example.entity.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One department's employees, read three ways, to compare allocation per call
+ * ({@code gc.alloc.rate.norm}, reported by the GC profiler that
+ * {@link RunBenchmarks} adds). {@code managedEntities} is the baseline: a plain
+ * transactional EntityManager, which snapshots every entity for dirty checking
+ * and flushes on commit, as repository reads did before their sessions were
+ * made read-only.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadFootprintBenchmarks {
+    @Benchmark
+    public List<Employee> managedEntities(BenchmarkDatabase db) {
+        return db.repository.inTransaction(em -> em.createQuery(
+                        "SELECT e FROM Employee e WHERE e.department.id = :deptId", Employee.class)
+                .setParameter("deptId", db.departmentId)
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<Employee> readOnlyEntities(BenchmarkDatabase db) {
+        return db.repository.getEmployeesByDepartment(db.departmentId);
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> projection(BenchmarkDatabase db) {
+        return db.repository.getEmployeesPage(db.departmentId, 0, db.employees);
+    }
+}
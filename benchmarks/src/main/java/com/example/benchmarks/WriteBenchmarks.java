@@ -0,0 +1,154 @@
+package com.example.benchmarks;
+
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import com.example.repository.BulkImporter;
+import com.example.repository.WriteBehindQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes through {@code CompanyRepository}. Every insert adds a row, so the
+ * tables grow a little during a trial; that is negligible next to the seeded
+ * sizes. The bulk operations work on departments of their own, sized like a
+ * seeded one, so the seeded data is left as it was.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteBenchmarks {
+
+    @State(Scope.Thread)
+    public static class Counter {
+        long next;
+    }
+
+    @Benchmark
+    public Employee addEmployee(BenchmarkDatabase db, Counter counter) {
+        Department department = db.departments.get((int) (counter.next % db.departments.size()));
+        Employee employee = new Employee("benchmark " + counter.next++, department);
+        db.repository.addEmployee(employee);
+        return employee;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Queue {
+        WriteBehindQueue writeBehind;
+
+        @Setup(Level.Trial)
+        public void open(BenchmarkDatabase db) {
+            writeBehind = new WriteBehindQueue(db.repository);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws InterruptedException {
+            writeBehind.close();
+        }
+    }
+
+    /** Eight concurrent callers, so inserts can share a group commit. */
+    @Benchmark
+    @Threads(8)
+    public Long addEmployeeWriteBehind(BenchmarkDatabase db, Queue queue, Counter counter) throws Exception {
+        Department department = db.departments.get((int) (counter.next % db.departments.size()));
+        return queue.writeBehind.addEmployee(new Employee("benchmark " + counter.next++, department)).get();
+    }
+
+    /** Adds by department id, without loading the department. */
+    @Benchmark
+    public Employee addEmployeeByDepartmentId(BenchmarkDatabase db, Counter counter) {
+        Long departmentId = db.departments.get((int) (counter.next % db.departments.size())).getId();
+        return db.repository.addEmployee("benchmark " + counter.next++, departmentId);
+    }
+
+    @State(Scope.Thread)
+    public static class Shuttle {
+        Long from;
+        Long to;
+
+        @Setup(Level.Trial)
+        public void create(BenchmarkDatabase db) throws Exception {
+            from = createDepartment(db, "Shuttle A", db.employees / BenchmarkDatabase.DEPARTMENTS);
+            to = createDepartment(db, "Shuttle B", 0);
+        }
+    }
+
+    /** Moves a department's worth of employees, back and forth between two departments. */
+    @Benchmark
+    public int moveEmployees(BenchmarkDatabase db, Shuttle shuttle) {
+        int moved = db.repository.moveEmployees(shuttle.from, shuttle.to);
+        Long from = shuttle.from;
+        shuttle.from = shuttle.to;
+        shuttle.to = from;
+        return moved;
+    }
+
+    @State(Scope.Thread)
+    public static class Doomed {
+        long next;
+        Long departmentId;
+
+        /** Per invocation, but the insert is not timed; deleteDepartment takes milliseconds. */
+        @Setup(Level.Invocation)
+        public void create(BenchmarkDatabase db) throws Exception {
+            departmentId = createDepartment(db, "Doomed " + next++, db.employees / BenchmarkDatabase.DEPARTMENTS);
+        }
+    }
+
+    /** Deletes a department with a seeded department's number of employees. */
+    @Benchmark
+    public int deleteDepartment(BenchmarkDatabase db, Doomed doomed) {
+        return db.repository.deleteDepartment(doomed.departmentId);
+    }
+
+    /** Renames ten seeded departments, and back again on the next invocation. */
+    @Benchmark
+    public int renameDepartments(BenchmarkDatabase db, Counter counter) {
+        String suffix = counter.next++ % 2 == 0 ? " (renamed)" : "";
+        Map<Long, String> newNames = new HashMap<>();
+        for (Department department : db.departments.subList(0, 10)) {
+            newNames.put(department.getId(), department.getName() + suffix);
+        }
+        return db.repository.renameDepartments(newNames);
+    }
+
+    /** Creates a department named {@code name} with {@code employees} employees. */
+    static Long createDepartment(BenchmarkDatabase db, String name, int employees) throws Exception {
+        if (employees == 0) {
+            Department department = new Department(name);
+            db.repository.addDepartment(department);
+            return department.getId();
+        }
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < employees; i++) {
+            csv.append(name).append(",worker ").append(i).append('\n');
+        }
+        new BulkImporter(db.repository, 1_000, 50_000).importCsv(new StringReader(csv.toString()), null);
+        return db.repository.findDepartmentByNamePrefix(name, null).getId();
+    }
+
+    @Benchmark
+    public Department addDepartment(BenchmarkDatabase db, Counter counter) {
+        Department department = new Department("Benchmark department " + counter.next++);
+        db.repository.addDepartment(department);
+        return department;
+    }
+}
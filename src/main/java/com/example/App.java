@@ -1,13 +1,44 @@
 package com.example;
 
+import com.example.cli.ExplainCommand;
+import com.example.cli.ExportCommand;
+import com.example.cli.ImportCommand;
+import com.example.cli.LoadCommand;
+import com.example.ui.MainFrame;
+
+import java.util.Arrays;
+
 /**
- * Hello world!
- *
+ * Command-line entry point. Without arguments it starts the Swing client;
+ * otherwise the first argument picks a headless command and the rest are its
+ * options.
+ * <pre>
+ * App [load|import|export|explain] [options]
+ * </pre>
  */
-public class App 
-{
-    public static void main( String[] args )
-    {
-        System.out.println( "Hello World!" );
+public class App {
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            MainFrame.main(args);
+            return;
+        }
+        String[] options = Arrays.copyOfRange(args, 1, args.length);
+        switch (args[0]) {
+            case "load":
+                LoadCommand.main(options);
+                break;
+            case "import":
+                ImportCommand.main(options);
+                break;
+            case "export":
+                ExportCommand.main(options);
+                break;
+            case "explain":
+                ExplainCommand.main(options);
+                break;
+            default:
+                System.err.println("Usage: App [load|import|export|explain] [options]");
+                System.exit(2);
+        }
     }
 }
@@ -0,0 +1,44 @@
+package com.example.cli;
+
+import com.example.repository.PlanFinding;
+import com.example.repository.QueryPlanAnalyzer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Explains every repository query against the configured database and prints
+ * the full scans and sorts found, with suggested indexes. Exits with status 1
+ * if a query that should use an index does not.
+ * <pre>
+ * ExplainCommand [--all]
+ * </pre>
+ * {@code --all} also lists the scans that methods such as {@code LIKE '%term%'}
+ * searches perform by design.
+ */
+public class ExplainCommand {
+    public static void main(String[] args) throws Exception {
+        boolean all = false;
+        for (String arg : args) {
+            if (arg.equals("--all")) {
+                all = true;
+            } else {
+                System.err.println("Usage: ExplainCommand [--all]");
+                System.exit(2);
+            }
+        }
+
+        List<PlanFinding> findings = new QueryPlanAnalyzer(Collections.emptyMap()).analyze();
+        int regressions = 0;
+        for (PlanFinding finding : findings) {
+            if (!finding.isExpected()) {
+                regressions++;
+            }
+            if (all || !finding.isExpected()) {
+                System.out.println(finding);
+            }
+        }
+        System.out.printf("%d finding(s), %d unexpected%n", findings.size(), regressions);
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+}
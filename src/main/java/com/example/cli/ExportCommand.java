@@ -0,0 +1,54 @@
+package com.example.cli;
+
+import com.example.repository.CompanyRepository;
+import com.example.repository.EmployeeExporter;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Streams employees to a CSV or JSON Lines file, chosen by the file extension
+ * ({@code .jsonl} for JSON Lines).
+ * <pre>
+ * ExportCommand &lt;file.csv|file.jsonl&gt; [--department ID]
+ * </pre>
+ */
+public class ExportCommand {
+    private static final String USAGE = "Usage: ExportCommand <file.csv|file.jsonl> [--department ID]";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        Path file = Paths.get(args[0]);
+        Long departmentId = null;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--department":
+                        departmentId = Long.parseLong(args[++i]);
+                        break;
+                    default:
+                        System.err.println("Unknown option: " + args[i]);
+                        System.err.println(USAGE);
+                        System.exit(2);
+                }
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        CompanyRepository repository = new CompanyRepository();
+        try {
+            long start = System.nanoTime();
+            long rows = new EmployeeExporter(repository).export(departmentId, EmployeeExporter.Format.forFile(file), file,
+                    written -> System.out.printf("%,d rows%n", written));
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Exported %,d employees in %.1f s%n", rows, seconds);
+        } finally {
+            repository.close();
+        }
+    }
+}
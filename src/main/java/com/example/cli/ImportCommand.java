@@ -0,0 +1,58 @@
+package com.example.cli;
+
+import com.example.repository.BulkImporter;
+import com.example.repository.CompanyRepository;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Bulk-imports employees from a CSV file with {@code department,employee} rows.
+ * <pre>
+ * ImportCommand &lt;file.csv&gt; [--batch-size N] [--commit-size N]
+ * </pre>
+ */
+public class ImportCommand {
+    private static final String USAGE = "Usage: ImportCommand <file.csv> [--batch-size N] [--commit-size N]";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        String file = args[0];
+        int batchSize = BulkImporter.DEFAULT_BATCH_SIZE;
+        int commitSize = BulkImporter.DEFAULT_COMMIT_SIZE;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--batch-size":
+                        batchSize = Integer.parseInt(args[++i]);
+                        break;
+                    case "--commit-size":
+                        commitSize = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        System.err.println("Unknown option: " + args[i]);
+                        System.err.println(USAGE);
+                        System.exit(2);
+                }
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        CompanyRepository repository = new CompanyRepository();
+        try (Reader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            BulkImporter.Result result = new BulkImporter(repository, batchSize, commitSize)
+                    .importCsv(reader, (rows, rate) -> System.out.printf("%,d rows (%,.0f rows/s)%n", rows, rate));
+            System.out.printf("Imported %,d employees and %d new departments at %,.0f rows/s%n",
+                    result.getRows(), result.getDepartmentsCreated(), result.getRowsPerSecond());
+        } finally {
+            repository.close();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.cli;
+
+import com.example.repository.CompanyRepository;
+import com.example.repository.LoadGenerator;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a mixed workload against the configured database and prints throughput
+ * and latency percentiles per operation.
+ * <pre>
+ * LoadCommand [--threads N] [--duration SECONDS] [--warmup SECONDS] [--mix INSERT:SEARCH:COUNT]
+ *             [--departments N] [--histogram] [--property KEY=VALUE]...
+ * </pre>
+ * {@code --property} overrides a {@code CompanyPU} setting, e.g. the JDBC URL, so
+ * the run can target another database. {@code --histogram} also prints the full
+ * percentile distribution.
+ */
+public class LoadCommand {
+    private static final String USAGE = "Usage: LoadCommand [--threads N] [--duration SECONDS] [--warmup SECONDS] "
+            + "[--mix INSERT:SEARCH:COUNT] [--departments N] [--histogram] [--property KEY=VALUE]...";
+
+    public static void main(String[] args) throws Exception {
+        int threads = LoadGenerator.DEFAULT_THREADS;
+        int departments = LoadGenerator.DEFAULT_DEPARTMENTS;
+        Duration duration = Duration.ofSeconds(30);
+        Duration warmup = Duration.ofSeconds(5);
+        LoadGenerator.Mix mix = new LoadGenerator.Mix(10, 60, 30);
+        boolean histogram = false;
+        Map<String, Object> properties = new HashMap<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--duration":
+                        duration = Duration.ofSeconds(Long.parseLong(args[++i]));
+                        break;
+                    case "--warmup":
+                        warmup = Duration.ofSeconds(Long.parseLong(args[++i]));
+                        break;
+                    case "--mix":
+                        mix = LoadGenerator.Mix.parse(args[++i]);
+                        break;
+                    case "--departments":
+                        departments = Integer.parseInt(args[++i]);
+                        break;
+                    case "--histogram":
+                        histogram = true;
+                        break;
+                    case "--property":
+                        String[] property = args[++i].split("=", 2);
+                        properties.put(property[0], property.length > 1 ? property[1] : "");
+                        break;
+                    default:
+                        System.err.println("Unknown option: " + args[i]);
+                        System.err.println(USAGE);
+                        System.exit(2);
+                }
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        CompanyRepository repository = new CompanyRepository(properties);
+        try {
+            LoadGenerator generator = new LoadGenerator(repository, mix, threads);
+            List<Long> departmentIds = generator.prepare(departments);
+            System.out.printf("Warming up for %d s, then measuring for %d s%n", warmup.getSeconds(), duration.getSeconds());
+            LoadGenerator.Result result = generator.run(departmentIds, warmup, duration);
+            result.print(System.out);
+            if (histogram) {
+                result.printDistribution(System.out);
+            }
+        } finally {
+            repository.close();
+        }
+    }
+}
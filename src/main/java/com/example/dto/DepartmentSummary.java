@@ -0,0 +1,41 @@
+package com.example.dto;
+
+import java.util.Objects;
+
+/**
+ * Id and name of a department, filled directly from a JPQL constructor
+ * expression. Used where departments are listed in bulk, so the list never holds
+ * managed entities. Two summaries are equal when their ids are.
+ */
+public final class DepartmentSummary {
+    private final Long id;
+    private final String name;
+
+    public DepartmentSummary(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof DepartmentSummary && Objects.equals(id, ((DepartmentSummary) other).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
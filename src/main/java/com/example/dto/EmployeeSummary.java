@@ -0,0 +1,41 @@
+package com.example.dto;
+
+/**
+ * Read-only projection of an employee and its department, filled directly from
+ * a JPQL constructor expression. Unlike {@link com.example.entity.Employee} it is
+ * never managed and has no lazy associations to trigger.
+ */
+public final class EmployeeSummary {
+    private final Long id;
+    private final String name;
+    private final Long departmentId;
+    private final String departmentName;
+
+    public EmployeeSummary(Long id, String name, Long departmentId, String departmentName) {
+        this.id = id;
+        this.name = name;
+        this.departmentId = departmentId;
+        this.departmentName = departmentName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Long getDepartmentId() {
+        return departmentId;
+    }
+
+    public String getDepartmentName() {
+        return departmentName;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (Dept: " + departmentName + ")";
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.event;
+
+/**
+ * A committed change to departments or employees, published by
+ * {@link com.example.repository.CompanyRepository} through its
+ * {@link CompanyEventBus} once the transaction that made it has committed.
+ */
+public interface CompanyEvent {
+}
@@ -0,0 +1,32 @@
+package com.example.event;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers {@link CompanyEvent}s to every registered listener, synchronously and
+ * in registration order. Listeners may be added and removed from any thread.
+ * A listener that throws does not stop the others from being called.
+ */
+public class CompanyEventBus {
+    private final List<CompanyEventListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void addListener(CompanyEventListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(CompanyEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void publish(CompanyEvent event) {
+        for (CompanyEventListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                // The change is already committed; a broken listener must not look like a failed write.
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.event;
+
+/**
+ * Receives {@link CompanyEvent}s. Called on the thread that committed the change,
+ * so implementations must be quick and must not block; Swing listeners should
+ * hand the event to the EDT.
+ */
+@FunctionalInterface
+public interface CompanyEventListener {
+    void onEvent(CompanyEvent event);
+}
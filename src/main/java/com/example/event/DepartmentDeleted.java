@@ -0,0 +1,20 @@
+package com.example.event;
+
+/** A department was deleted together with all of its employees. */
+public final class DepartmentDeleted implements CompanyEvent {
+    private final Long departmentId;
+    private final int employeesDeleted;
+
+    public DepartmentDeleted(Long departmentId, int employeesDeleted) {
+        this.departmentId = departmentId;
+        this.employeesDeleted = employeesDeleted;
+    }
+
+    public Long getDepartmentId() {
+        return departmentId;
+    }
+
+    public int getEmployeesDeleted() {
+        return employeesDeleted;
+    }
+}
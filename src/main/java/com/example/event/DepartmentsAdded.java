@@ -0,0 +1,20 @@
+package com.example.event;
+
+import com.example.entity.Department;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** Departments inserted in one transaction, with their generated ids. */
+public final class DepartmentsAdded implements CompanyEvent {
+    private final List<Department> departments;
+
+    public DepartmentsAdded(List<Department> departments) {
+        this.departments = Collections.unmodifiableList(new ArrayList<>(departments));
+    }
+
+    public List<Department> getDepartments() {
+        return departments;
+    }
+}
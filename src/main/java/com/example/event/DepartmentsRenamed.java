@@ -0,0 +1,18 @@
+package com.example.event;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/** New names by department id; ids that matched no department are absent. */
+public final class DepartmentsRenamed implements CompanyEvent {
+    private final Map<Long, String> newNames;
+
+    public DepartmentsRenamed(Map<Long, String> newNames) {
+        this.newNames = Collections.unmodifiableMap(new HashMap<>(newNames));
+    }
+
+    public Map<Long, String> getNewNames() {
+        return newNames;
+    }
+}
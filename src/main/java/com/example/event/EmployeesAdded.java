@@ -0,0 +1,23 @@
+package com.example.event;
+
+import com.example.entity.Employee;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Employees inserted in one transaction, with their generated ids. A bulk import
+ * publishes one event per committed chunk rather than one per row.
+ */
+public final class EmployeesAdded implements CompanyEvent {
+    private final List<Employee> employees;
+
+    public EmployeesAdded(List<Employee> employees) {
+        this.employees = Collections.unmodifiableList(new ArrayList<>(employees));
+    }
+
+    public List<Employee> getEmployees() {
+        return employees;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.event;
+
+/** Every employee of one department was moved to another. */
+public final class EmployeesMoved implements CompanyEvent {
+    private final Long fromDepartmentId;
+    private final Long toDepartmentId;
+    private final int count;
+
+    public EmployeesMoved(Long fromDepartmentId, Long toDepartmentId, int count) {
+        this.fromDepartmentId = fromDepartmentId;
+        this.toDepartmentId = toDepartmentId;
+        this.count = count;
+    }
+
+    public Long getFromDepartmentId() {
+        return fromDepartmentId;
+    }
+
+    public Long getToDepartmentId() {
+        return toDepartmentId;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
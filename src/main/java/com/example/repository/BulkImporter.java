@@ -0,0 +1,185 @@
+package com.example.repository;
+
+import com.example.dto.DepartmentSummary;
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams {@code department,employee} CSV rows into the database.
+ * <p>
+ * Rows are read one at a time and inserted through JDBC batches of
+ * {@code batchSize}. The persistence context is flushed and cleared after every
+ * batch and the transaction is committed every {@code commitSize} rows, so heap
+ * use stays constant regardless of file size. Departments that do not exist yet
+ * are created on first use; only their name-to-id map is kept in memory. An
+ * empty department field imports the employee without a department.
+ */
+public class BulkImporter {
+    /** Receives progress after every commit. */
+    public interface ProgressListener {
+        void onProgress(long rows, double rowsPerSecond);
+    }
+
+    public static final int DEFAULT_BATCH_SIZE = 50;
+    public static final int DEFAULT_COMMIT_SIZE = 5_000;
+    private static final int DEPARTMENT_PAGE_SIZE = 1_000;
+
+    private final CompanyRepository repository;
+    private final int batchSize;
+    private final int commitSize;
+
+    public BulkImporter(CompanyRepository repository) {
+        this(repository, DEFAULT_BATCH_SIZE, DEFAULT_COMMIT_SIZE);
+    }
+
+    public BulkImporter(CompanyRepository repository, int batchSize, int commitSize) {
+        if (batchSize <= 0 || commitSize < batchSize) {
+            throw new IllegalArgumentException("Need 0 < batchSize <= commitSize");
+        }
+        this.repository = repository;
+        this.batchSize = batchSize;
+        this.commitSize = commitSize;
+    }
+
+    /**
+     * Imports every row of {@code csv}. A header line {@code department,employee}
+     * is skipped if present. Chunks committed before a failure stay committed.
+     */
+    public Result importCsv(Reader csv, ProgressListener listener) throws IOException {
+        Map<String, Long> departmentIds = new HashMap<>();
+        // Id/name pairs only; no Department entities are built for the lookup map.
+        List<DepartmentSummary> page = repository.getDepartmentsPage(0, DEPARTMENT_PAGE_SIZE);
+        while (!page.isEmpty()) {
+            for (DepartmentSummary department : page) {
+                departmentIds.putIfAbsent(department.getName(), department.getId());
+            }
+            page = repository.getDepartmentsPage(page.get(page.size() - 1).getId(), DEPARTMENT_PAGE_SIZE);
+        }
+        int existingDepartments = departmentIds.size();
+
+        long start = System.nanoTime();
+        long rows = 0;
+        try (CsvReader reader = new CsvReader(csv)) {
+            List<String> row = reader.next();
+            if (row != null && isHeader(row)) {
+                row = reader.next();
+            }
+            while (row != null) {
+                List<String> chunkStart = row;
+                Chunk chunk = repository.inTransaction(em -> insertChunk(em, reader, chunkStart, departmentIds), committed -> {
+                    repository.departmentsInserted(committed.departments);
+                    repository.employeesInserted(committed.employees);
+                });
+                rows += chunk.employees.size();
+                row = chunk.next;
+                if (listener != null) {
+                    listener.onProgress(rows, rowsPerSecond(rows, start));
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new Result(rows, departmentIds.size() - existingDepartments, rowsPerSecond(rows, start));
+    }
+
+    /** Inserts up to {@code commitSize} rows starting with {@code row} in the caller's transaction. */
+    private Chunk insertChunk(EntityManager em, CsvReader reader, List<String> row, Map<String, Long> departmentIds) {
+        Session session = em.unwrap(Session.class);
+        session.setJdbcBatchSize(batchSize);
+        // Do not push a million freshly inserted employees through the second-level cache.
+        session.setCacheMode(CacheMode.IGNORE);
+        Chunk chunk = new Chunk();
+        try {
+            while (row != null && chunk.employees.size() < commitSize) {
+                insert(em, row, reader.getLineNumber(), departmentIds, chunk);
+                if (chunk.employees.size() % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+                row = reader.next();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        chunk.next = row;
+        return chunk;
+    }
+
+    private static void insert(EntityManager em, List<String> row, long lineNumber,
+                               Map<String, Long> departmentIds, Chunk chunk) {
+        if (row.size() < 2 || row.get(1).isEmpty()) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": expected department,employee");
+        }
+        String departmentName = row.get(0);
+        if (departmentName.isEmpty()) {
+            Employee employee = new Employee(row.get(1), null);
+            em.persist(employee);
+            chunk.employees.add(employee);
+            return;
+        }
+        Long departmentId = departmentIds.get(departmentName);
+        if (departmentId == null) {
+            Department department = new Department(departmentName);
+            em.persist(department);
+            departmentId = department.getId();
+            departmentIds.put(departmentName, departmentId);
+            chunk.departments.add(department);
+        }
+        Employee employee = new Employee(row.get(1), em.getReference(Department.class, departmentId));
+        em.persist(employee);
+        chunk.employees.add(employee);
+    }
+
+    private static boolean isHeader(List<String> row) {
+        return row.size() >= 2
+                && row.get(0).equalsIgnoreCase("department")
+                && row.get(1).equalsIgnoreCase("employee");
+    }
+
+    private static double rowsPerSecond(long rows, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds > 0 ? rows / seconds : 0;
+    }
+
+    /** Rows inserted by one transaction, handed to the repository once it commits. */
+    private static final class Chunk {
+        final List<Department> departments = new ArrayList<>();
+        final List<Employee> employees = new ArrayList<>();
+        List<String> next;
+    }
+
+    public static final class Result {
+        private final long rows;
+        private final int departmentsCreated;
+        private final double rowsPerSecond;
+
+        Result(long rows, int departmentsCreated, double rowsPerSecond) {
+            this.rows = rows;
+            this.departmentsCreated = departmentsCreated;
+            this.rowsPerSecond = rowsPerSecond;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public int getDepartmentsCreated() {
+            return departmentsCreated;
+        }
+
+        public double getRowsPerSecond() {
+            return rowsPerSecond;
+        }
+    }
+}
@@ -1,77 +1,744 @@
 package com.example.repository;
 
 import com.example.entity.Department;
+import com.example.dto.DepartmentSummary;
+import com.example.dto.EmployeeSummary;
 import com.example.entity.Employee;
+import com.example.event.CompanyEventBus;
+import com.example.event.DepartmentDeleted;
+import com.example.event.DepartmentsAdded;
+import com.example.event.DepartmentsRenamed;
+import com.example.event.EmployeesAdded;
+import com.example.event.EmployeesMoved;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
 import javax.persistence.Persistence;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
+/**
+ * Data access for departments and employees.
+ * <p>
+ * The repository holds only the thread-safe {@link EntityManagerFactory}. Every
+ * operation opens its own short-lived {@link EntityManager}, so entities are
+ * returned detached and nothing accumulates in a long-lived persistence context.
+ * Callers may use the repository from several threads at once.
+ * <p>
+ * Every committed write is announced on {@link #getEvents()}, so views can apply
+ * the change instead of querying again.
+ */
 public class CompanyRepository {
+    private static final String EMPLOYEE_SUMMARY =
+            "new com.example.dto.EmployeeSummary(e.id, e.name, d.id, d.name)";
+    private static final String DEPARTMENT_SUMMARY = "new com.example.dto.DepartmentSummary(d.id, d.name)";
+    private static final String EMPLOYEE_SUMMARY_BY_IDS =
+            "SELECT " + EMPLOYEE_SUMMARY + " FROM Employee e LEFT JOIN e.department d WHERE e.id IN :ids ORDER BY e.id";
+
+    // Query cache region for department lists; invalidated whenever the department table changes.
+    private static final String DEPARTMENT_QUERY_REGION = "department-queries";
+
+    // Rows per round trip when streaming; MySQL needs useCursorFetch=true to honour it.
+    static final int STREAM_FETCH_SIZE = 1_000;
+
+    /** Set to {@code false} to skip the in-memory trigram index over names. */
+    public static final String NAME_INDEX_PROPERTY = "company.name-index.enabled";
+
+    /**
+     * Milliseconds after a write during which reads stay on the primary, so this
+     * repository sees its own writes despite replication lag.
+     */
+    public static final String READ_YOUR_WRITES_PROPERTY = "company.replicas.read-your-writes-ms";
+
+    /**
+     * Milliseconds the cached headcounts are used before they are counted again,
+     * so inserts and deletes by other processes show up.
+     */
+    public static final String HEADCOUNT_MAX_AGE_PROPERTY = "company.headcounts.max-age-ms";
+
     private final EntityManagerFactory emf;
-    private final EntityManager em;
+    private final NameIndex nameIndex;
+    private final DepartmentHeadcounts headcounts;
+    private final RepositoryMetrics metrics = new RepositoryMetrics();
+    private final CompanyEventBus events = new CompanyEventBus();
+    private final CompanyRepositoryJmx jmx;
+    private volatile PoolMetrics poolMetrics;
+    private final long readYourWritesNanos;
+    private volatile long lastWriteNanos;
 
     public CompanyRepository() {
-        emf = Persistence.createEntityManagerFactory("CompanyPU");
-        em = emf.createEntityManager();
+        this(Collections.emptyMap());
+    }
+
+    /**
+     * @param properties overrides for the {@code CompanyPU} properties in persistence.xml,
+     *                   e.g. to point the repository at another database
+     */
+    public CompanyRepository(Map<String, ?> properties) {
+        Map<String, Object> settings = new HashMap<>(properties);
+        settings.put(AvailableSettings.STATEMENT_INSPECTOR, metrics.statementInspector());
+        settings.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> Collections.singletonList(new SchemaMigrations()));
+        emf = Persistence.createEntityManagerFactory("CompanyPU", settings);
+        HikariDataSource dataSource = unwrapDataSource(emf);
+        if (dataSource != null) {
+            dataSource.setMetricsTrackerFactory((poolName, poolStats) -> poolMetrics = new PoolMetrics(poolName, poolStats));
+        }
+        if (Boolean.parseBoolean(String.valueOf(emf.getProperties().getOrDefault(NAME_INDEX_PROPERTY, "false")))) {
+            nameIndex = new NameIndex(emf, this);
+            nameIndex.buildInBackground();
+        } else {
+            nameIndex = null;
+        }
+        readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(
+                Long.parseLong(String.valueOf(emf.getProperties().getOrDefault(READ_YOUR_WRITES_PROPERTY, "2000"))));
+        lastWriteNanos = System.nanoTime() - readYourWritesNanos;
+        headcounts = new DepartmentHeadcounts(TimeUnit.MILLISECONDS.toNanos(
+                Long.parseLong(String.valueOf(emf.getProperties().getOrDefault(HEADCOUNT_MAX_AGE_PROPERTY, "60000")))));
+        jmx = new CompanyRepositoryJmx(metrics, getStatistics());
+        jmx.register();
     }
 
     public void addDepartment(Department department) {
-        em.getTransaction().begin();
-        em.persist(department);
-        em.getTransaction().commit();
+        metrics.time("addDepartment", () -> {
+            inTransaction(em -> {
+                em.persist(department);
+                return null;
+            }, added -> departmentsInserted(Collections.singletonList(department)));
+            return null;
+        });
     }
 
     public void addEmployee(Employee employee) {
-        em.getTransaction().begin();
-        em.persist(employee);
-        em.getTransaction().commit();
+        metrics.time("addEmployee", () -> {
+            inTransaction(em -> {
+                em.persist(employee);
+                return null;
+            }, added -> employeesInserted(Collections.singletonList(employee)));
+            return null;
+        });
+    }
+
+    /**
+     * Adds an employee to the department with {@code departmentId} without loading
+     * the department.
+     *
+     * @return the new employee, with its id; its department is an uninitialized reference
+     */
+    public Employee addEmployee(String name, Long departmentId) {
+        return metrics.time("addEmployee", () -> inTransaction(em -> {
+            Employee employee = new Employee(name, em.getReference(Department.class, departmentId));
+            em.persist(employee);
+            return employee;
+        }, added -> employeesInserted(Collections.singletonList(added))));
+    }
+
+    /** @return whether substring name searches are currently answered by the trigram index */
+    public boolean isNameIndexReady() {
+        return nameIndex != null && nameIndex.employees.isReady();
+    }
+
+    /** Keeps in-memory structures in step with rows committed outside addDepartment. */
+    void departmentsInserted(List<Department> departments) {
+        if (nameIndex != null) {
+            departments.forEach(d -> nameIndex.departments.add(d.getId(), d.getName()));
+        }
+        if (!departments.isEmpty()) {
+            events.publish(new DepartmentsAdded(departments));
+        }
+    }
+
+    /** Keeps in-memory structures in step with rows committed outside addEmployee. */
+    void employeesInserted(List<Employee> employees) {
+        if (nameIndex != null) {
+            employees.forEach(e -> nameIndex.employees.add(e.getId(), e.getName()));
+        }
+        for (Employee employee : employees) {
+            if (employee.getDepartment() != null) {
+                headcounts.add(employee.getDepartment().getId(), 1);
+            }
+        }
+        if (!employees.isEmpty()) {
+            events.publish(new EmployeesAdded(employees));
+        }
+    }
+
+    /**
+     * Moves every employee of {@code fromDepartmentId} to {@code toDepartmentId}
+     * with a single UPDATE; no employee is loaded.
+     *
+     * @return the number of employees moved
+     */
+    public int moveEmployees(Long fromDepartmentId, Long toDepartmentId) {
+        return metrics.time("moveEmployees", () -> inTransaction(em -> {
+            if (fromDepartmentId.equals(toDepartmentId)) {
+                return 0;
+            }
+            return bulkStatement(em, "UPDATE Employee e SET e.department = :to WHERE e.department.id = :from")
+                    .setParameter("to", em.getReference(Department.class, toDepartmentId))
+                    .setParameter("from", fromDepartmentId)
+                    .executeUpdate();
+        }, moved -> {
+            headcounts.add(fromDepartmentId, -moved);
+            headcounts.add(toDepartmentId, moved);
+            if (moved > 0) {
+                events.publish(new EmployeesMoved(fromDepartmentId, toDepartmentId, moved));
+            }
+        }));
+    }
+
+    /**
+     * Deletes a department and all of its employees with two DELETE statements,
+     * the same outcome as removing the entity through its cascade but without
+     * loading the employees collection. Move the employees first to keep them.
+     *
+     * @return the number of employees deleted
+     */
+    public int deleteDepartment(Long departmentId) {
+        return metrics.time("deleteDepartment", () -> {
+            List<Object[]> removedEmployees = new ArrayList<>();
+            List<Object[]> removedDepartment = new ArrayList<>();
+            int[] departmentsDeleted = new int[1];
+            return inTransaction(em -> {
+                if (nameIndex != null) {
+                    // Only ids and names, so the index can forget the rows once they are gone.
+                    removedEmployees.addAll(em.createQuery(
+                                    "SELECT e.id, e.name FROM Employee e WHERE e.department.id = :deptId", Object[].class)
+                            .setParameter("deptId", departmentId)
+                            .getResultList());
+                    removedDepartment.addAll(em.createQuery(
+                                    "SELECT d.id, d.name FROM Department d WHERE d.id = :deptId", Object[].class)
+                            .setParameter("deptId", departmentId)
+                            .getResultList());
+                }
+                int deleted = bulkStatement(em, "DELETE FROM Employee e WHERE e.department.id = :deptId")
+                        .setParameter("deptId", departmentId)
+                        .executeUpdate();
+                departmentsDeleted[0] = bulkStatement(em, "DELETE FROM Department d WHERE d.id = :deptId")
+                        .setParameter("deptId", departmentId)
+                        .executeUpdate();
+                return deleted;
+            }, deleted -> {
+                headcounts.remove(departmentId);
+                removedEmployees.forEach(row -> nameIndex.employees.remove((Long) row[0], (String) row[1]));
+                removedDepartment.forEach(row -> nameIndex.departments.remove((Long) row[0], (String) row[1]));
+                if (departmentsDeleted[0] > 0) {
+                    events.publish(new DepartmentDeleted(departmentId, deleted));
+                }
+            });
+        });
+    }
+
+    /**
+     * Renames departments by id in one transaction, one UPDATE per department;
+     * ids that do not exist are skipped.
+     *
+     * @return the number of departments renamed
+     */
+    public int renameDepartments(Map<Long, String> newNames) {
+        return metrics.time("renameDepartments", () -> {
+            Map<Long, String> oldNames = new HashMap<>();
+            Map<Long, String> renamedNames = new HashMap<>();
+            return inTransaction(em -> {
+                if (nameIndex != null && !newNames.isEmpty()) {
+                    em.createQuery("SELECT d.id, d.name FROM Department d WHERE d.id IN :ids", Object[].class)
+                            .setParameter("ids", newNames.keySet())
+                            .getResultStream()
+                            .forEach(row -> oldNames.put((Long) row[0], (String) row[1]));
+                }
+                for (Map.Entry<Long, String> entry : newNames.entrySet()) {
+                    if (bulkStatement(em, "UPDATE Department d SET d.name = :name WHERE d.id = :id")
+                            .setParameter("name", entry.getValue())
+                            .setParameter("id", entry.getKey())
+                            .executeUpdate() > 0) {
+                        renamedNames.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                return renamedNames.size();
+            }, renamed -> {
+                oldNames.forEach((id, oldName) -> {
+                    nameIndex.departments.remove(id, oldName);
+                    nameIndex.departments.add(id, newNames.get(id));
+                });
+                if (renamed > 0) {
+                    events.publish(new DepartmentsRenamed(renamedNames));
+                }
+            });
+        });
+    }
+
+    /**
+     * A bulk UPDATE or DELETE without the default query timeout, which is meant for
+     * interactive reads: a large department may take longer, and timing out would
+     * only roll the write back.
+     */
+    private static Query bulkStatement(EntityManager em, String jpql) {
+        return em.createQuery(jpql).setHint(QueryHints.SPEC_HINT_TIMEOUT, 0);
     }
 
     public List<Department> getAllDepartments() {
-        return em.createQuery("SELECT d FROM Department d", Department.class).getResultList();
+        return metrics.time("getAllDepartments", () ->
+                read(em -> em.createQuery("SELECT d FROM Department d", Department.class)
+                        .setHint(QueryHints.HINT_CACHEABLE, true)
+                        .setHint(QueryHints.HINT_CACHE_REGION, DEPARTMENT_QUERY_REGION)
+                        .getResultList()));
+    }
+
+    public long countDepartments() {
+        return metrics.time("countDepartments", () ->
+                read(em -> em.createQuery("SELECT COUNT(d) FROM Department d", Long.class).getSingleResult()));
+    }
+
+    /** Keyset page of departments in id order, as id/name pairs. */
+    public List<DepartmentSummary> getDepartmentsPage(long afterId, int limit) {
+        return metrics.time("getDepartmentsPage", () ->
+                read(em -> em.createQuery("SELECT " + DEPARTMENT_SUMMARY + " FROM Department d " +
+                                "WHERE d.id > :afterId ORDER BY d.id", DepartmentSummary.class)
+                        .setParameter("afterId", afterId)
+                        .setMaxResults(limit)
+                        .getResultList()));
+    }
+
+    /** Like {@link #findEmployeeKeyAfter}, over all departments. */
+    public Long findDepartmentKeyAfter(long afterId, int offset) {
+        return metrics.time("findDepartmentKeyAfter", () ->
+                read(em -> em.createQuery("SELECT d.id FROM Department d WHERE d.id > :afterId ORDER BY d.id", Long.class)
+                        .setParameter("afterId", afterId)
+                        .setFirstResult(offset)
+                        .setMaxResults(1)
+                        .getResultStream()
+                        .findFirst()
+                        .orElse(null)));
+    }
+
+    /**
+     * Type-ahead lookup: the first department, by name then id, whose name starts
+     * with {@code prefix} and that comes after {@code after}, or {@code null}. The
+     * prefix match is a range scan on the name index.
+     *
+     * @param after the department to continue from, or {@code null} to start at the first match
+     */
+    public DepartmentSummary findDepartmentByNamePrefix(String prefix, DepartmentSummary after) {
+        return metrics.time("findDepartmentByNamePrefix", () -> read(em -> {
+            TypedQuery<DepartmentSummary> query = em.createQuery("SELECT " + DEPARTMENT_SUMMARY + " FROM Department d " +
+                    "WHERE d.name LIKE :prefix ESCAPE '!' " +
+                    (after != null ? "AND (d.name > :name OR (d.name = :name AND d.id > :id)) " : "") +
+                    "ORDER BY d.name, d.id", DepartmentSummary.class);
+            query.setParameter("prefix", prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%");
+            if (after != null) {
+                query.setParameter("name", after.getName());
+                query.setParameter("id", after.getId());
+            }
+            return query.setMaxResults(1).getResultStream().findFirst().orElse(null);
+        }));
+    }
+
+    /** @return the position of {@code departmentId} in id order, i.e. how many departments come before it */
+    public long countDepartmentsBefore(long departmentId) {
+        return metrics.time("countDepartmentsBefore", () ->
+                read(em -> em.createQuery("SELECT COUNT(d) FROM Department d WHERE d.id < :id", Long.class)
+                        .setParameter("id", departmentId)
+                        .getSingleResult()));
     }
 
     public List<Employee> getEmployeesByDepartment(Long departmentId) {
-        return em.createQuery("SELECT e FROM Employee e WHERE e.department.id = :deptId", Employee.class)
-                .setParameter("deptId", departmentId)
-                .getResultList();
+        return metrics.time("getEmployeesByDepartment", () ->
+                read(em -> em.createQuery("SELECT e FROM Employee e WHERE e.department.id = :deptId", Employee.class)
+                        .setParameter("deptId", departmentId)
+                        .getResultList()));
     }
 
     // JPQL Example 1: Tìm phòng ban theo tên (sử dụng LIKE)
     public List<Department> findDepartmentsByName(String namePattern) {
-        TypedQuery<Department> query = em.createQuery(
-                "SELECT d FROM Department d WHERE d.name LIKE :namePattern",
-                Department.class
-        );
-        query.setParameter("namePattern", "%" + namePattern + "%");
-        return query.getResultList();
+        return metrics.time("findDepartmentsByName", () -> {
+            long[] ids = nameIndex != null ? nameIndex.departmentIds(namePattern) : null;
+            if (ids != null) {
+                return findByIds("SELECT d FROM Department d WHERE d.id IN :ids ORDER BY d.id", Department.class, ids, 0, ids.length);
+            }
+            return read(em -> {
+                TypedQuery<Department> query = em.createQuery(
+                        "SELECT d FROM Department d WHERE d.name LIKE :namePattern",
+                        Department.class
+                );
+                query.setParameter("namePattern", "%" + namePattern + "%");
+                query.setHint(QueryHints.HINT_CACHEABLE, true);
+                query.setHint(QueryHints.HINT_CACHE_REGION, DEPARTMENT_QUERY_REGION);
+                return query.getResultList();
+            });
+        });
     }
 
     // JPQL Example 2: Đếm số nhân viên trong một phòng ban
+    // Served from the headcount cache; the database is only queried when the cache has expired.
     public Long countEmployeesInDepartment(Long departmentId) {
-        TypedQuery<Long> query = em.createQuery(
-                "SELECT COUNT(e) FROM Employee e WHERE e.department.id = :deptId",
-                Long.class
-        );
-        query.setParameter("deptId", departmentId);
-        return query.getSingleResult();
+        return metrics.time("countEmployeesInDepartment", () ->
+                headcounts.get(departmentId, this::queryHeadcounts, this::queryHeadcount));
+    }
+
+    /** @return employee count by department id; departments without employees are absent */
+    public Map<Long, Long> getHeadcounts() {
+        return metrics.time("getHeadcounts", () -> headcounts.get(this::queryHeadcounts));
+    }
+
+    private Map<Long, Long> queryHeadcounts() {
+        // From the primary: a lagging replica's counts would be kept until they expire.
+        return readOnPrimary(em -> {
+            Map<Long, Long> counts = new HashMap<>();
+            em.createQuery("SELECT e.department.id, COUNT(e) FROM Employee e " +
+                            "WHERE e.department IS NOT NULL GROUP BY e.department.id", Object[].class)
+                    .getResultStream()
+                    .forEach(row -> counts.put((Long) row[0], (Long) row[1]));
+            return counts;
+        });
+    }
+
+    private long queryHeadcount(Long departmentId) {
+        return readOnPrimary(em -> em.createQuery(
+                        "SELECT COUNT(e) FROM Employee e WHERE e.department.id = :deptId", Long.class)
+                .setParameter("deptId", departmentId)
+                .getSingleResult());
     }
 
     // JPQL Example 3: Tìm nhân viên theo tên gần đúng
+    // The department is fetched in the same query because the result is detached;
+    // the outer join keeps employees that have none.
     public List<Employee> findEmployeesByName(String namePattern) {
-        TypedQuery<Employee> query = em.createQuery(
-                "SELECT e FROM Employee e WHERE e.name LIKE :namePattern",
-                Employee.class
-        );
-        query.setParameter("namePattern", "%" + namePattern + "%");
-        return query.getResultList();
+        return metrics.time("findEmployeesByName", () -> {
+            long[] ids = employeeIds(namePattern);
+            if (ids != null) {
+                return findByIds("SELECT e FROM Employee e LEFT JOIN FETCH e.department WHERE e.id IN :ids ORDER BY e.id",
+                        Employee.class, ids, 0, ids.length);
+            }
+            return read(em -> {
+                TypedQuery<Employee> query = em.createQuery(
+                        "SELECT e FROM Employee e LEFT JOIN FETCH e.department WHERE e.name LIKE :namePattern",
+                        Employee.class
+                );
+                query.setParameter("namePattern", "%" + namePattern + "%");
+                return query.getResultList();
+            });
+        });
+    }
+
+    /** Like {@link #findEmployeesByName(String)}, but ordered by id and cut off after {@code limit} rows. */
+    public List<Employee> findEmployeesByName(String namePattern, int limit) {
+        return metrics.time("findEmployeesByName", () -> {
+            long[] ids = employeeIds(namePattern);
+            if (ids != null) {
+                return findByIds("SELECT e FROM Employee e LEFT JOIN FETCH e.department WHERE e.id IN :ids ORDER BY e.id",
+                        Employee.class, ids, 0, Math.min(limit, ids.length));
+            }
+            return read(em -> em.createQuery(
+                            "SELECT e FROM Employee e LEFT JOIN FETCH e.department WHERE e.name LIKE :namePattern ORDER BY e.id",
+                            Employee.class)
+                    .setParameter("namePattern", "%" + namePattern + "%")
+                    .setMaxResults(limit)
+                    .getResultList());
+        });
+    }
+
+    // Read-side projection: employee and department columns from one joined query,
+    // so listing results never lazy-loads a department per row.
+    public List<EmployeeSummary> findEmployeeSummariesByName(String namePattern) {
+        return metrics.time("findEmployeeSummariesByName", () -> {
+            long[] ids = employeeIds(namePattern);
+            if (ids != null) {
+                return findByIds(EMPLOYEE_SUMMARY_BY_IDS, EmployeeSummary.class, ids, 0, ids.length);
+            }
+            return read(em -> em.createQuery(
+                            "SELECT " + EMPLOYEE_SUMMARY + " FROM Employee e LEFT JOIN e.department d " +
+                                    "WHERE e.name LIKE :namePattern", EmployeeSummary.class)
+                    .setParameter("namePattern", "%" + namePattern + "%")
+                    .getResultList());
+        });
+    }
+
+    public Long countEmployeesByName(String namePattern) {
+        return metrics.time("countEmployeesByName", () -> {
+            long[] ids = employeeIds(namePattern);
+            if (ids != null) {
+                return (long) ids.length;
+            }
+            return read(em -> em.createQuery(
+                            "SELECT COUNT(e) FROM Employee e WHERE e.name LIKE :namePattern", Long.class)
+                    .setParameter("namePattern", "%" + namePattern + "%")
+                    .getSingleResult());
+        });
+    }
+
+    // Keyset pagination: each page starts after the last id of the previous one,
+    // so the database seeks on the primary key instead of skipping rows.
+    public List<EmployeeSummary> getEmployeesPage(Long departmentId, long afterId, int limit) {
+        return metrics.time("getEmployeesPage", () ->
+                read(em -> em.createQuery(
+                                "SELECT " + EMPLOYEE_SUMMARY + " FROM Employee e LEFT JOIN e.department d " +
+                                        "WHERE e.department.id = :deptId AND e.id > :afterId ORDER BY e.id", EmployeeSummary.class)
+                        .setParameter("deptId", departmentId)
+                        .setParameter("afterId", afterId)
+                        .setMaxResults(limit)
+                        .getResultList()));
+    }
+
+    public List<EmployeeSummary> findEmployeesByNamePage(String namePattern, long afterId, int limit) {
+        return metrics.time("findEmployeesByNamePage", () -> {
+            long[] ids = employeeIds(namePattern);
+            if (ids != null) {
+                int from = firstIndexAfter(ids, afterId);
+                return findByIds(EMPLOYEE_SUMMARY_BY_IDS, EmployeeSummary.class, ids, from, Math.min(from + limit, ids.length));
+            }
+            return read(em -> em.createQuery(
+                            "SELECT " + EMPLOYEE_SUMMARY + " FROM Employee e LEFT JOIN e.department d " +
+                                    "WHERE e.name LIKE :namePattern AND e.id > :afterId ORDER BY e.id", EmployeeSummary.class)
+                    .setParameter("namePattern", "%" + namePattern + "%")
+                    .setParameter("afterId", afterId)
+                    .setMaxResults(limit)
+                    .getResultList());
+        });
+    }
+
+    /**
+     * Hands every employee of {@code departmentId}, or of all departments if it is
+     * {@code null}, to {@code action} in id order while the rows are still being read.
+     * Rows are fetched through a forward-only cursor a thousand at a time and are
+     * projections, so nothing accumulates in the persistence context.
+     */
+    public void streamEmployees(Long departmentId, Consumer<EmployeeSummary> action) {
+        metrics.time("streamEmployees", () -> read(em -> {
+            TypedQuery<EmployeeSummary> query = em.createQuery(
+                    "SELECT " + EMPLOYEE_SUMMARY + " FROM Employee e LEFT JOIN e.department d " +
+                            (departmentId != null ? "WHERE e.department.id = :deptId " : "") + "ORDER BY e.id",
+                    EmployeeSummary.class);
+            if (departmentId != null) {
+                query.setParameter("deptId", departmentId);
+            }
+            query.setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE);
+            query.setHint(QueryHints.HINT_READONLY, true);
+            // An export runs as long as it takes; the default timeout is for interactive queries.
+            query.setHint(QueryHints.SPEC_HINT_TIMEOUT, 0);
+            try (Stream<EmployeeSummary> rows = query.getResultStream()) {
+                rows.forEach(action);
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * Returns the id of the row {@code offset} positions after {@code afterId} in a
+     * department, or {@code null} if there is none. Used to jump to a distant page
+     * without loading the rows in between.
+     */
+    public Long findEmployeeKeyAfter(Long departmentId, long afterId, int offset) {
+        return metrics.time("findEmployeeKeyAfter", () ->
+                read(em -> em.createQuery(
+                                "SELECT e.id FROM Employee e " +
+                                        "WHERE e.department.id = :deptId AND e.id > :afterId ORDER BY e.id", Long.class)
+                        .setParameter("deptId", departmentId)
+                        .setParameter("afterId", afterId)
+                        .setFirstResult(offset)
+                        .setMaxResults(1)
+                        .getResultStream()
+                        .findFirst()
+                        .orElse(null)));
+    }
+
+    public Long findEmployeeKeyAfterByName(String namePattern, long afterId, int offset) {
+        return metrics.time("findEmployeeKeyAfterByName", () -> {
+            long[] ids = employeeIds(namePattern);
+            if (ids != null) {
+                int index = firstIndexAfter(ids, afterId) + offset;
+                return index < ids.length ? ids[index] : null;
+            }
+            return read(em -> em.createQuery(
+                            "SELECT e.id FROM Employee e " +
+                                    "WHERE e.name LIKE :namePattern AND e.id > :afterId ORDER BY e.id", Long.class)
+                    .setParameter("namePattern", "%" + namePattern + "%")
+                    .setParameter("afterId", afterId)
+                    .setFirstResult(offset)
+                    .setMaxResults(1)
+                    .getResultStream()
+                    .findFirst()
+                    .orElse(null));
+        });
+    }
+
+    private long[] employeeIds(String namePattern) {
+        return nameIndex != null ? nameIndex.employeeIds(namePattern) : null;
+    }
+
+    /** Position of the first id greater than {@code afterId} in sorted {@code ids}. */
+    private static int firstIndexAfter(long[] ids, long afterId) {
+        int pos = Arrays.binarySearch(ids, afterId);
+        return pos >= 0 ? pos + 1 : -pos - 1;
+    }
+
+    /** Primary-key fetch of {@code ids[from..to)}, in chunks small enough for an IN list. */
+    private <T> List<T> findByIds(String jpql, Class<T> type, long[] ids, int from, int to) {
+        return read(em -> {
+            List<T> result = new ArrayList<>(to - from);
+            for (int start = from; start < to; start += NameIndex.CHUNK_SIZE) {
+                result.addAll(em.createQuery(jpql, type)
+                        .setParameter("ids", NameIndex.slice(ids, start, Math.min(start + NameIndex.CHUNK_SIZE, to)))
+                        .getResultList());
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Runs {@code work} as one unit of work: a fresh EntityManager and a single
+     * transaction that commits when {@code work} returns and rolls back if it throws.
+     */
+    public <T> T inTransaction(Function<EntityManager, T> work) {
+        return inTransaction(work, result -> { });
+    }
+
+    /**
+     * Like {@link #inTransaction(Function)}, then hands the result to
+     * {@code afterCommit}. Hooks that keep in-memory state in step with the commit
+     * belong there, so readers never see the commit without its bookkeeping.
+     */
+    <T> T inTransaction(Function<EntityManager, T> work, Consumer<T> afterCommit) {
+        headcounts.writeStarted();
+        try {
+            EntityManager em = emf.createEntityManager();
+            EntityTransaction tx = em.getTransaction();
+            T result;
+            long start = System.nanoTime();
+            boolean committed = false;
+            try {
+                tx.begin();
+                result = work.apply(em);
+                tx.commit();
+                committed = true;
+            } catch (RuntimeException e) {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                throw e;
+            } finally {
+                em.close();
+                long end = System.nanoTime();
+                metrics.recordTransaction(end - start, !committed);
+                if (committed) {
+                    lastWriteNanos = end;
+                }
+            }
+            afterCommit.accept(result);
+            return result;
+        } finally {
+            headcounts.writeFinished();
+        }
+    }
+
+    /**
+     * Runs read-only {@code work} on a replica, unless this repository wrote within
+     * the read-your-writes window.
+     * <p>
+     * The session is read-only and never flushes: entities it loads keep no
+     * snapshot for dirty checking. Constructor-expression projections are not
+     * managed at all, which is why list and search screens use them.
+     */
+    <T> T read(Function<EntityManager, T> work) {
+        if (System.nanoTime() - lastWriteNanos < readYourWritesNanos) {
+            return readOnPrimary(work);
+        }
+        return RoutingConnectionProvider.onReplica(() -> readOnPrimary(work));
+    }
+
+    private <T> T readOnPrimary(Function<EntityManager, T> work) {
+        EntityManager em = emf.createEntityManager();
+        Session session = em.unwrap(Session.class);
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        QueryCancellation cancellation = QueryCancellation.current();
+        try {
+            if (cancellation != null) {
+                cancellation.attach(session);
+            }
+            return work.apply(em);
+        } finally {
+            if (cancellation != null) {
+                cancellation.detach();
+            }
+            em.close();
+        }
+    }
+
+    /**
+     * @return connection pool metrics, or {@code null} when the persistence unit
+     * is not configured with the HikariCP connection provider
+     */
+    public PoolMetrics getPoolMetrics() {
+        return poolMetrics;
+    }
+
+    private static HikariDataSource unwrapDataSource(EntityManagerFactory emf) {
+        ConnectionProvider provider = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(ConnectionProvider.class);
+        return provider.isUnwrappableAs(HikariDataSource.class) ? provider.unwrap(HikariDataSource.class) : null;
+    }
+
+    /** @return where committed changes are announced */
+    public CompanyEventBus getEvents() {
+        return events;
+    }
+
+    /** @return latency, statement and row figures per repository method */
+    public RepositoryMetrics getMetrics() {
+        return metrics;
+    }
+
+    public Statistics getStatistics() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Hit, miss and put counts for every second-level and query cache region.
+     */
+    public Map<String, CacheRegionStatistics> getCacheStatistics() {
+        Statistics statistics = getStatistics();
+        // Region names come back qualified, but the lookup expects them without the prefix.
+        String prefix = emf.unwrap(SessionFactoryImplementor.class).getSessionFactoryOptions().getCacheRegionPrefix();
+        Map<String, CacheRegionStatistics> regions = new TreeMap<>();
+        for (String qualified : statistics.getSecondLevelCacheRegionNames()) {
+            String region = prefix != null && qualified.startsWith(prefix + ".")
+                    ? qualified.substring(prefix.length() + 1)
+                    : qualified;
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                regions.put(region, regionStatistics);
+            }
+        }
+        return regions;
     }
 
     public void close() {
-        em.close();
+        jmx.unregister();
         emf.close();
     }
 }
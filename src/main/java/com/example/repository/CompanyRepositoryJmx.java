@@ -0,0 +1,109 @@
+package com.example.repository;
+
+import org.hibernate.stat.Statistics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Publishes a repository's {@link RepositoryMetrics} and Hibernate statistics over JMX. */
+class CompanyRepositoryJmx implements CompanyRepositoryMXBean {
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final RepositoryMetrics metrics;
+    private final Statistics statistics;
+    private ObjectName name;
+
+    CompanyRepositoryJmx(RepositoryMetrics metrics, Statistics statistics) {
+        this.metrics = metrics;
+        this.statistics = statistics;
+    }
+
+    void register() {
+        try {
+            name = new ObjectName("com.example:type=CompanyRepository,name=repository-" + INSTANCES.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        } catch (JMException e) {
+            // Monitoring is optional; the repository works without it.
+            name = null;
+            e.printStackTrace();
+        }
+    }
+
+    void unregister() {
+        if (name == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(name);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+        name = null;
+    }
+
+    @Override
+    public List<MethodStats> getMethods() {
+        return metrics.getMethods();
+    }
+
+    @Override
+    public MethodStats getTransactions() {
+        return metrics.getTransactions();
+    }
+
+    @Override
+    public long getQueryExecutionCount() {
+        return statistics.getQueryExecutionCount();
+    }
+
+    @Override
+    public long getQueryExecutionMaxTimeMillis() {
+        return statistics.getQueryExecutionMaxTime();
+    }
+
+    @Override
+    public String getSlowestQuery() {
+        return statistics.getQueryExecutionMaxTimeQueryString();
+    }
+
+    @Override
+    public long getPrepareStatementCount() {
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Override
+    public long getEntityLoadCount() {
+        return statistics.getEntityLoadCount();
+    }
+
+    @Override
+    public long getSecondLevelCacheHitCount() {
+        return statistics.getSecondLevelCacheHitCount();
+    }
+
+    @Override
+    public long getSecondLevelCacheMissCount() {
+        return statistics.getSecondLevelCacheMissCount();
+    }
+
+    @Override
+    public long getQueryCacheHitCount() {
+        return statistics.getQueryCacheHitCount();
+    }
+
+    @Override
+    public long getQueryCacheMissCount() {
+        return statistics.getQueryCacheMissCount();
+    }
+
+    @Override
+    public void resetStatistics() {
+        metrics.reset();
+        statistics.clear();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.repository;
+
+import java.util.List;
+
+/**
+ * JMX view of a {@link CompanyRepository}, registered as
+ * {@code com.example:type=CompanyRepository,name=repository-N} while the
+ * repository is open. Connection pool figures are published by HikariCP itself
+ * under {@code com.zaxxer.hikari}.
+ */
+public interface CompanyRepositoryMXBean {
+    List<MethodStats> getMethods();
+
+    MethodStats getTransactions();
+
+    long getQueryExecutionCount();
+
+    long getQueryExecutionMaxTimeMillis();
+
+    String getSlowestQuery();
+
+    long getPrepareStatementCount();
+
+    long getEntityLoadCount();
+
+    long getSecondLevelCacheHitCount();
+
+    long getSecondLevelCacheMissCount();
+
+    long getQueryCacheHitCount();
+
+    long getQueryCacheMissCount();
+
+    /** Clears the method figures and the Hibernate statistics. */
+    void resetStatistics();
+}
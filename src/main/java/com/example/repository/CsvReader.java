@@ -0,0 +1,85 @@
+package com.example.repository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming CSV reader: comma separated, fields optionally quoted with
+ * {@code "} and quotes escaped by doubling them. A quoted field may span line
+ * breaks, which are read back as {@code \n}. Reads one record at a time, so
+ * memory use does not depend on the size of the input.
+ */
+class CsvReader implements AutoCloseable {
+    private final BufferedReader reader;
+    private long lineNumber;
+
+    CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    /** @return the fields of the next non-blank record, or {@code null} at end of input */
+    List<String> next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null) {
+                return null;
+            }
+        } while (line.trim().isEmpty());
+
+        long firstLine = lineNumber;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString().trim());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (!quoted) {
+                break;
+            }
+            // The line break belongs to the quoted field.
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null) {
+                throw new IllegalArgumentException("Unterminated quote on line " + firstLine);
+            }
+            field.append('\n');
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /** @return the number of the last line read */
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
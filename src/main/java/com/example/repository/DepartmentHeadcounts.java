@@ -0,0 +1,167 @@
+package com.example.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Employee count per department, loaded with a grouped query and then kept
+ * current by {@link CompanyRepository} as employees are written.
+ * <p>
+ * Writes by other processes are not seen, so the counts are loaded again once
+ * they are older than {@code maxAgeNanos}; that also discards any drift between
+ * the local deltas and the database.
+ * <p>
+ * Writes are bracketed by {@link #writeStarted()} and {@link #writeFinished()}.
+ * A load is only kept if no write was in progress or finished while its query
+ * ran; otherwise a row committed just before the query could be counted both by
+ * the query and by the write's {@link #add}.
+ * <p>
+ * Only one load runs at a time. While it does, other callers are answered from
+ * the expired counts, so a busy application does not run the grouped query once
+ * per caller; with no counts to serve, a single department is counted instead.
+ */
+class DepartmentHeadcounts {
+    private final AtomicInteger activeWrites = new AtomicInteger();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private final long maxAgeNanos;
+    private volatile Map<Long, LongAdder> counts;
+    private volatile long loadedAtNanos;
+
+    DepartmentHeadcounts(long maxAgeNanos) {
+        this.maxAgeNanos = maxAgeNanos;
+    }
+
+    /** @return the cached counts, loading them with {@code query} if needed */
+    Map<Long, Long> get(Supplier<Map<Long, Long>> query) {
+        Map<Long, LongAdder> current = fresh();
+        if (current != null) {
+            return snapshot(current);
+        }
+        current = counts;
+        if (!loading.compareAndSet(false, true)) {
+            // Another caller is already loading; until it is done the expired counts will do.
+            return current != null ? snapshot(current) : query.get();
+        }
+        try {
+            Map<Long, Long> loaded = new HashMap<>();
+            load(query, loaded);
+            return loaded;
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    /**
+     * @param countOne counts a single department; used when there are no counts to
+     *                 serve, so a discarded load does not mean another grouped query
+     */
+    long get(Long departmentId, Supplier<Map<Long, Long>> query, ToLongFunction<Long> countOne) {
+        Map<Long, LongAdder> current = fresh();
+        if (current == null) {
+            current = counts;
+            if (loading.compareAndSet(false, true)) {
+                try {
+                    Map<Long, Long> loaded = new HashMap<>();
+                    if (load(query, loaded)) {
+                        return loaded.getOrDefault(departmentId, 0L);
+                    }
+                } finally {
+                    loading.set(false);
+                }
+                return countOne.applyAsLong(departmentId);
+            }
+            // Another caller is already loading; until it is done the expired counts will do.
+            if (current == null) {
+                return countOne.applyAsLong(departmentId);
+            }
+        }
+        LongAdder count = current.get(departmentId);
+        return count != null ? count.sum() : 0;
+    }
+
+    void writeStarted() {
+        activeWrites.incrementAndGet();
+        writes.incrementAndGet();
+    }
+
+    void writeFinished() {
+        writes.incrementAndGet();
+        activeWrites.decrementAndGet();
+    }
+
+    /** Applies a committed change; must be called between writeStarted and writeFinished. */
+    void add(Long departmentId, long delta) {
+        Map<Long, LongAdder> current = counts;
+        if (current != null && departmentId != null && delta != 0) {
+            current.computeIfAbsent(departmentId, id -> new LongAdder()).add(delta);
+        }
+    }
+
+    /** Forgets a deleted department; must be called between writeStarted and writeFinished. */
+    void remove(Long departmentId) {
+        Map<Long, LongAdder> current = counts;
+        if (current != null) {
+            current.remove(departmentId);
+        }
+    }
+
+    /** Drops the cached counts; the next read runs the grouped query again. */
+    void invalidate() {
+        counts = null;
+    }
+
+    /**
+     * Runs {@code query} into {@code loaded} and keeps the result as the new counts
+     * unless a write overlapped it. Only called by the caller holding {@link #loading}.
+     *
+     * @return whether the result was kept
+     */
+    private boolean load(Supplier<Map<Long, Long>> query, Map<Long, Long> loaded) {
+        Map<Long, LongAdder> current = counts;
+        long writesBefore = writes.get();
+        boolean quiet = activeWrites.get() == 0;
+        long startedNanos = System.nanoTime();
+        loaded.putAll(query.get());
+        synchronized (this) {
+            // Otherwise keep the expired counts; the next read tries again.
+            if (counts != current || !quiet || writes.get() != writesBefore) {
+                return false;
+            }
+            Map<Long, LongAdder> fresh = new ConcurrentHashMap<>();
+            loaded.forEach((departmentId, count) -> {
+                LongAdder adder = new LongAdder();
+                adder.add(count);
+                fresh.put(departmentId, adder);
+            });
+            counts = fresh;
+            loadedAtNanos = startedNanos;
+            return true;
+        }
+    }
+
+    /** @return the cached counts, or {@code null} if they are missing or expired */
+    private Map<Long, LongAdder> fresh() {
+        Map<Long, LongAdder> current = counts;
+        return current != null && System.nanoTime() - loadedAtNanos < maxAgeNanos ? current : null;
+    }
+
+    private static Map<Long, Long> snapshot(Map<Long, LongAdder> counts) {
+        Map<Long, Long> result = new HashMap<>();
+        counts.forEach((departmentId, count) -> {
+            // A department whose employees were all moved away counts as absent.
+            long sum = count.sum();
+            if (sum != 0) {
+                result.put(departmentId, sum);
+            }
+        });
+        return result;
+    }
+}
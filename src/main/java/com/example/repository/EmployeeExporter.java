@@ -0,0 +1,150 @@
+package com.example.repository;
+
+import com.example.dto.EmployeeSummary;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Streams employees to a CSV or JSON Lines file.
+ * <p>
+ * Rows come from {@link CompanyRepository#streamEmployees} as projections read
+ * through a forward-only cursor, and each row is written as soon as it is read,
+ * so heap use does not depend on how many employees are exported. The CSV form
+ * ({@code department,employee,id}) can be read back by {@link BulkImporter}; an
+ * employee without a department has an empty department field.
+ */
+public class EmployeeExporter {
+    /** Receives progress every {@link #PROGRESS_INTERVAL} rows. */
+    public interface ProgressListener {
+        void onProgress(long rows);
+    }
+
+    public enum Format {
+        CSV, JSON_LINES;
+
+        /** @return the format matching the extension of {@code file}, CSV unless it ends in .jsonl or .json */
+        public static Format forFile(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            return name.endsWith(".jsonl") || name.endsWith(".json") ? JSON_LINES : CSV;
+        }
+    }
+
+    static final int PROGRESS_INTERVAL = 10_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CompanyRepository repository;
+
+    public EmployeeExporter(CompanyRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Writes the employees of {@code departmentId}, or of every department if it is
+     * {@code null}, to {@code target}, replacing any existing file.
+     *
+     * @return number of employees written
+     */
+    public long export(Long departmentId, Format format, Path target, ProgressListener listener) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE),
+                     BUFFER_SIZE)) {
+            if (format == Format.CSV) {
+                writer.write("department,employee,id\n");
+            }
+            long[] rows = new long[1];
+            repository.streamEmployees(departmentId, employee -> {
+                try {
+                    if (format == Format.CSV) {
+                        writeCsv(writer, employee);
+                    } else {
+                        writeJson(writer, employee);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (++rows[0] % PROGRESS_INTERVAL == 0 && listener != null) {
+                    listener.onProgress(rows[0]);
+                }
+            });
+            return rows[0];
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void writeCsv(Writer writer, EmployeeSummary employee) throws IOException {
+        writer.write(csvField(employee.getDepartmentName()));
+        writer.write(',');
+        writer.write(csvField(employee.getName()));
+        writer.write(',');
+        writer.write(Long.toString(employee.getId()));
+        writer.write('\n');
+    }
+
+    private static void writeJson(Writer writer, EmployeeSummary employee) throws IOException {
+        writer.write("{\"id\":");
+        writer.write(Long.toString(employee.getId()));
+        writer.write(",\"name\":");
+        writeJsonString(writer, employee.getName());
+        writer.write(",\"departmentId\":");
+        writer.write(employee.getDepartmentId() != null ? employee.getDepartmentId().toString() : "null");
+        writer.write(",\"department\":");
+        writeJsonString(writer, employee.getDepartmentName());
+        writer.write("}\n");
+    }
+
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static void writeJsonString(Writer writer, String value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.repository;
+
+import com.example.dto.DepartmentSummary;
+import com.example.entity.Department;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives a mix of inserts, name searches and department counts against a
+ * {@link CompanyRepository} from several workers at once, and records the
+ * latency of every call.
+ * <p>
+ * Each worker keeps its own histograms and they are merged at the end, so
+ * recording never contends. Calls made during the warm-up are run but not
+ * recorded. On Java 21 and later every worker gets a virtual thread; before
+ * that, a platform thread.
+ */
+public class LoadGenerator {
+    public static final int DEFAULT_THREADS = 8;
+    public static final int DEFAULT_DEPARTMENTS = 20;
+    static final int SEARCH_LIMIT = 20;
+    private static final String EMPLOYEE_PREFIX = "Load employee ";
+
+    public enum Operation {
+        INSERT, SEARCH, COUNT
+    }
+
+    /** Relative weights of the operations, e.g. {@code 10:60:30} for insert:search:count. */
+    public static final class Mix {
+        private final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        private final int total;
+
+        public Mix(int insert, int search, int count) {
+            if (insert < 0 || search < 0 || count < 0 || insert + search + count == 0) {
+                throw new IllegalArgumentException("Weights must be non-negative and not all zero");
+            }
+            weights.put(Operation.INSERT, insert);
+            weights.put(Operation.SEARCH, search);
+            weights.put(Operation.COUNT, count);
+            total = insert + search + count;
+        }
+
+        /** Parses {@code insert:search:count}. */
+        public static Mix parse(String text) {
+            String[] parts = text.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Expected insert:search:count, got " + text);
+            }
+            return new Mix(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+        }
+
+        Operation pick(ThreadLocalRandom random) {
+            int roll = random.nextInt(total);
+            for (Map.Entry<Operation, Integer> weight : weights.entrySet()) {
+                roll -= weight.getValue();
+                if (roll < 0) {
+                    return weight.getKey();
+                }
+            }
+            throw new AssertionError();
+        }
+
+        @Override
+        public String toString() {
+            return weights.get(Operation.INSERT) + ":" + weights.get(Operation.SEARCH) + ":" + weights.get(Operation.COUNT);
+        }
+    }
+
+    private final CompanyRepository repository;
+    private final Mix mix;
+    private final int threads;
+
+    public LoadGenerator(CompanyRepository repository, Mix mix, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required");
+        }
+        this.repository = repository;
+        this.mix = mix;
+        this.threads = threads;
+    }
+
+    /**
+     * Creates departments until there are at least {@code departments}, so inserts
+     * and counts have somewhere to go.
+     *
+     * @return the ids of the departments the workload uses
+     */
+    public List<Long> prepare(int departments) {
+        List<Long> ids = new ArrayList<>();
+        for (List<DepartmentSummary> page = repository.getDepartmentsPage(0, departments);
+             !page.isEmpty() && ids.size() < departments;
+             page = repository.getDepartmentsPage(ids.get(ids.size() - 1), departments - ids.size())) {
+            page.forEach(department -> ids.add(department.getId()));
+        }
+        while (ids.size() < departments) {
+            Department department = new Department("Load department " + (ids.size() + 1));
+            repository.addDepartment(department);
+            ids.add(department.getId());
+        }
+        return ids;
+    }
+
+    /** Runs the workload for {@code warmup} unrecorded, then for {@code duration} recorded. */
+    public Result run(List<Long> departmentIds, Duration warmup, Duration duration) throws InterruptedException {
+        if (departmentIds.isEmpty()) {
+            throw new IllegalArgumentException("The workload needs at least one department");
+        }
+        long start = System.nanoTime();
+        long recordFrom = start + warmup.toNanos();
+        long stopAt = recordFrom + duration.toNanos();
+        AtomicInteger sequence = new AtomicInteger();
+
+        ExecutorService workers = newWorkerExecutor(threads);
+        List<Future<Worker>> futures = new ArrayList<>(threads);
+        try {
+            for (int i = 0; i < threads; i++) {
+                Worker worker = new Worker(departmentIds, sequence, recordFrom, stopAt);
+                futures.add(workers.submit(() -> {
+                    worker.run();
+                    return worker;
+                }));
+            }
+            Result result = new Result(mix, threads);
+            for (Future<Worker> future : futures) {
+                result.add(future.get());
+            }
+            result.seconds = (System.nanoTime() - recordFrom) / 1e9;
+            return result;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load worker failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /** A virtual thread per worker where the JDK has them, looked up reflectively since the build targets Java 11. */
+    static ExecutorService newWorkerExecutor(int threads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "load-worker-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private final class Worker {
+        final Map<Operation, Histogram> latency = new EnumMap<>(Operation.class);
+        final Map<Operation, long[]> errors = new EnumMap<>(Operation.class);
+        private final List<Long> departmentIds;
+        private final AtomicInteger sequence;
+        private final long recordFrom;
+        private final long stopAt;
+
+        Worker(List<Long> departmentIds, AtomicInteger sequence, long recordFrom, long stopAt) {
+            this.departmentIds = departmentIds;
+            this.sequence = sequence;
+            this.recordFrom = recordFrom;
+            this.stopAt = stopAt;
+            for (Operation operation : Operation.values()) {
+                // Microseconds; auto-resizing so a stalled call cannot overflow it.
+                latency.put(operation, new Histogram(3));
+                errors.put(operation, new long[1]);
+            }
+        }
+
+        void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long now = System.nanoTime();
+            while (now < stopAt && !Thread.currentThread().isInterrupted()) {
+                Operation operation = mix.pick(random);
+                Long departmentId = departmentIds.get(random.nextInt(departmentIds.size()));
+                boolean failed = false;
+                long begin = System.nanoTime();
+                try {
+                    execute(operation, departmentId, random);
+                } catch (RuntimeException e) {
+                    failed = true;
+                }
+                now = System.nanoTime();
+                if (begin >= recordFrom) {
+                    latency.get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(now - begin));
+                    if (failed) {
+                        errors.get(operation)[0]++;
+                    }
+                }
+            }
+        }
+
+        private void execute(Operation operation, Long departmentId, ThreadLocalRandom random) {
+            switch (operation) {
+                case INSERT:
+                    repository.addEmployee(EMPLOYEE_PREFIX + sequence.incrementAndGet(), departmentId);
+                    break;
+                case SEARCH:
+                    // A random number prefix, so each search matches a different slice of the inserted names.
+                    repository.findEmployeesByNamePage(EMPLOYEE_PREFIX + random.nextInt(10, 100), 0, SEARCH_LIMIT);
+                    break;
+                case COUNT:
+                    repository.countEmployeesInDepartment(departmentId);
+                    break;
+                default:
+                    throw new AssertionError(operation);
+            }
+        }
+    }
+
+    /** Merged latencies of every worker, in microseconds. */
+    public static final class Result {
+        private final Mix mix;
+        private final int threads;
+        private final Map<Operation, Histogram> latency = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+        private final Histogram all = new Histogram(3);
+        private double seconds;
+
+        Result(Mix mix, int threads) {
+            this.mix = mix;
+            this.threads = threads;
+            for (Operation operation : Operation.values()) {
+                latency.put(operation, new Histogram(3));
+                errors.put(operation, 0L);
+            }
+        }
+
+        void add(Worker worker) {
+            for (Operation operation : Operation.values()) {
+                latency.get(operation).add(worker.latency.get(operation));
+                all.add(worker.latency.get(operation));
+                errors.merge(operation, worker.errors.get(operation)[0], Long::sum);
+            }
+        }
+
+        public long getCount(Operation operation) {
+            return latency.get(operation).getTotalCount();
+        }
+
+        public long getErrors(Operation operation) {
+            return errors.get(operation);
+        }
+
+        public Histogram getLatency(Operation operation) {
+            return latency.get(operation);
+        }
+
+        public long getTotalCount() {
+            return all.getTotalCount();
+        }
+
+        public double getThroughput() {
+            return all.getTotalCount() / seconds;
+        }
+
+        public void print(PrintStream out) {
+            out.printf(Locale.ROOT, "%d threads, mix %s (insert:search:count), %.1f s measured%n", threads, mix, seconds);
+            out.printf(Locale.ROOT, "%-8s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                    "op", "calls", "errors", "calls/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+            for (Operation operation : Operation.values()) {
+                line(out, operation.name().toLowerCase(Locale.ROOT), latency.get(operation), errors.get(operation));
+            }
+            line(out, "total", all, errors.values().stream().mapToLong(Long::longValue).sum());
+        }
+
+        /** The full percentile distribution of every call, in milliseconds, as HdrHistogram prints it. */
+        public void printDistribution(PrintStream out) {
+            all.outputPercentileDistribution(out, 1_000.0);
+        }
+
+        private void line(PrintStream out, String name, Histogram histogram, long errorCount) {
+            out.printf(Locale.ROOT, "%-8s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    name, histogram.getTotalCount(), errorCount, histogram.getTotalCount() / seconds,
+                    histogram.getValueAtPercentile(50) / 1_000.0,
+                    histogram.getValueAtPercentile(90) / 1_000.0,
+                    histogram.getValueAtPercentile(99) / 1_000.0,
+                    histogram.getValueAtPercentile(99.9) / 1_000.0,
+                    histogram.getMaxValue() / 1_000.0);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.repository;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Point-in-time figures for one {@link CompanyRepository} method, as reported by
+ * {@link RepositoryMetrics}. Latencies are in milliseconds.
+ */
+public final class MethodStats {
+    private final String name;
+    private final long calls;
+    private final long errors;
+    private final double p50Millis;
+    private final double p99Millis;
+    private final double maxMillis;
+    private final long statements;
+    private final long rows;
+
+    @ConstructorProperties({"name", "calls", "errors", "p50Millis", "p99Millis", "maxMillis", "statements", "rows"})
+    public MethodStats(String name, long calls, long errors, double p50Millis, double p99Millis, double maxMillis,
+                       long statements, long rows) {
+        this.name = name;
+        this.calls = calls;
+        this.errors = errors;
+        this.p50Millis = p50Millis;
+        this.p99Millis = p99Millis;
+        this.maxMillis = maxMillis;
+        this.statements = statements;
+        this.rows = rows;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    /** Calls that ended with an exception. */
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    /** JDBC statements prepared by all calls together. */
+    public long getStatements() {
+        return statements;
+    }
+
+    /** Rows (or entities) returned by all calls together. */
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: calls=%d p50=%.3fms p99=%.3fms max=%.3fms statements=%d rows=%d errors=%d",
+                name, calls, p50Millis, p99Millis, maxMillis, statements, rows, errors);
+    }
+}
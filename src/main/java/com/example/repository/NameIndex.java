@@ -0,0 +1,155 @@
+package com.example.repository;
+
+import com.example.search.TrigramIndex;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Trigram indexes over employee and department names, kept by
+ * {@link CompanyRepository} to answer {@code LIKE '%term%'} searches without a
+ * table scan.
+ * <p>
+ * The indexes are built on a background thread at startup; until they are ready,
+ * and whenever a term is too short or too unselective to help, the lookups return
+ * {@code null} and the repository falls back to plain {@code LIKE}.
+ */
+class NameIndex {
+    // Past this many candidates a scan is about as cheap as the primary-key lookups.
+    static final int MAX_CANDIDATES = 50_000;
+    static final int CHUNK_SIZE = 1_000;
+    private static final int BUILD_PAGE_SIZE = 10_000;
+
+    final TrigramIndex employees = new TrigramIndex();
+    final TrigramIndex departments = new TrigramIndex();
+    private final EntityManagerFactory emf;
+    private final CompanyRepository repository;
+    private volatile Match lastEmployeeMatch;
+
+    /**
+     * @param emf        builds the index from the primary, so it starts from every committed row
+     * @param repository runs the lookups, like any other search read
+     */
+    NameIndex(EntityManagerFactory emf, CompanyRepository repository) {
+        this.emf = emf;
+        this.repository = repository;
+    }
+
+    void buildInBackground() {
+        Thread builder = new Thread(() -> {
+            try {
+                build();
+            } catch (RuntimeException e) {
+                // The index is an optimisation; searches keep using LIKE.
+                e.printStackTrace();
+            }
+        }, "name-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    void build() {
+        load("Department", departments);
+        departments.markReady();
+        load("Employee", employees);
+        employees.markReady();
+    }
+
+    /** Walks the table in primary-key order so memory use stays constant. */
+    private void load(String entity, TrigramIndex index) {
+        long afterId = 0;
+        while (true) {
+            List<Object[]> rows;
+            EntityManager em = emf.createEntityManager();
+            try {
+                rows = em.createQuery("SELECT x.id, x.name FROM " + entity + " x WHERE x.id > :afterId ORDER BY x.id",
+                                Object[].class)
+                        .setParameter("afterId", afterId)
+                        .setMaxResults(BUILD_PAGE_SIZE)
+                        .getResultList();
+            } finally {
+                em.close();
+            }
+            for (Object[] row : rows) {
+                index.add((Long) row[0], (String) row[1]);
+            }
+            if (rows.size() < BUILD_PAGE_SIZE) {
+                return;
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    /** @return sorted ids of employees whose name contains {@code term}, or {@code null} to fall back to LIKE */
+    long[] employeeIds(String term) {
+        Match match = lastEmployeeMatch;
+        long version = employees.version();
+        if (match != null && match.term.equals(term) && match.version == version) {
+            return match.ids;
+        }
+        long[] ids = resolve("Employee", employees, term);
+        if (ids != null) {
+            lastEmployeeMatch = new Match(term, version, ids);
+        }
+        return ids;
+    }
+
+    /** @return sorted ids of departments whose name contains {@code term}, or {@code null} to fall back to LIKE */
+    long[] departmentIds(String term) {
+        return resolve("Department", departments, term);
+    }
+
+    /**
+     * Narrows the candidates to real matches with primary-key lookups. The LIKE
+     * here only runs against rows already located by id. The lookups go through
+     * {@link CompanyRepository#read}, so they use a replica and a read-only
+     * session and can be cancelled with the rest of the search.
+     */
+    private long[] resolve(String entity, TrigramIndex index, String term) {
+        long[] candidates = index.candidates(term);
+        if (candidates == null || candidates.length > MAX_CANDIDATES) {
+            return null;
+        }
+        long[] matches = repository.read(em -> {
+            long[] found = new long[candidates.length];
+            int n = 0;
+            for (int from = 0; from < candidates.length; from += CHUNK_SIZE) {
+                List<Long> chunk = slice(candidates, from, Math.min(from + CHUNK_SIZE, candidates.length));
+                for (Long id : em.createQuery(
+                                "SELECT x.id FROM " + entity + " x WHERE x.id IN :ids AND x.name LIKE :namePattern",
+                                Long.class)
+                        .setParameter("ids", chunk)
+                        .setParameter("namePattern", "%" + term + "%")
+                        .getResultList()) {
+                    found[n++] = id;
+                }
+            }
+            return Arrays.copyOf(found, n);
+        });
+        Arrays.sort(matches);
+        return matches;
+    }
+
+    static List<Long> slice(long[] ids, int from, int to) {
+        List<Long> list = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            list.add(ids[i]);
+        }
+        return list;
+    }
+
+    private static final class Match {
+        final String term;
+        final long version;
+        final long[] ids;
+
+        Match(String term, long version, long[] ids) {
+            this.term = term;
+            this.version = version;
+            this.ids = ids;
+        }
+    }
+}
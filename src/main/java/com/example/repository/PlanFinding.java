@@ -0,0 +1,70 @@
+package com.example.repository;
+
+/**
+ * A costly step in the execution plan of one repository query, as reported by
+ * {@link QueryPlanAnalyzer}.
+ */
+public final class PlanFinding {
+    public enum Kind {
+        /** Every row of the table, or of one of its indexes, is read. */
+        FULL_SCAN,
+        /** Rows are sorted after reading because no index delivers them in order (MySQL's filesort). */
+        SORT
+    }
+
+    private final String method;
+    private final String sql;
+    private final String table;
+    private final Kind kind;
+    private final boolean expected;
+    private final String suggestedIndex;
+
+    PlanFinding(String method, String sql, String table, Kind kind, boolean expected, String suggestedIndex) {
+        this.method = method;
+        this.sql = sql;
+        this.table = table;
+        this.kind = kind;
+        this.expected = expected;
+        this.suggestedIndex = suggestedIndex;
+    }
+
+    /** The {@link CompanyRepository} method that issued the query. */
+    public String getMethod() {
+        return method;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Whether the method reads the whole table by design, e.g. listing every
+     * department or searching with {@code LIKE '%term%'}, which no B-tree index can serve.
+     */
+    public boolean isExpected() {
+        return expected;
+    }
+
+    /**
+     * @return an {@code @Index} for the table's {@code @Table} annotation that would
+     * avoid this step, or {@code null} if the query gives nothing to index on
+     */
+    public String getSuggestedIndex() {
+        return suggestedIndex;
+    }
+
+    @Override
+    public String toString() {
+        return method + ": " + kind + " on " + table + (expected ? " (expected)" : "")
+                + (suggestedIndex != null ? "; consider " + suggestedIndex : "")
+                + "\n    " + sql;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.repository;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live view of the JDBC connection pool behind a {@link CompanyRepository}:
+ * connection counts straight from HikariCP plus connection-acquisition latency
+ * recorded by this tracker.
+ */
+public class PoolMetrics implements IMetricsTracker {
+    private final String poolName;
+    private final PoolStats poolStats;
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder acquisitionNanos = new LongAdder();
+    private final AtomicLong maxAcquisitionNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+
+    PoolMetrics(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public int getActiveConnections() {
+        return poolStats.getActiveConnections();
+    }
+
+    public int getIdleConnections() {
+        return poolStats.getIdleConnections();
+    }
+
+    public int getTotalConnections() {
+        return poolStats.getTotalConnections();
+    }
+
+    /** Threads currently blocked waiting for a connection. */
+    public int getThreadsAwaitingConnection() {
+        return poolStats.getPendingThreads();
+    }
+
+    public long getAcquisitionCount() {
+        return acquisitions.sum();
+    }
+
+    public double getAverageAcquisitionMillis() {
+        long count = acquisitions.sum();
+        return count == 0 ? 0 : acquisitionNanos.sum() / (count * 1_000_000.0);
+    }
+
+    public double getMaxAcquisitionMillis() {
+        return maxAcquisitionNanos.get() / 1_000_000.0;
+    }
+
+    /** Number of requests that gave up after the configured connection timeout. */
+    public long getConnectionTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquisitions.increment();
+        acquisitionNanos.add(elapsedAcquiredNanos);
+        maxAcquisitionNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: active=%d idle=%d waiting=%d acquired=%d avg=%.3fms max=%.3fms timeouts=%d",
+                poolName, getActiveConnections(), getIdleConnections(), getThreadsAwaitingConnection(),
+                getAcquisitionCount(), getAverageAcquisitionMillis(), getMaxAcquisitionMillis(),
+                getConnectionTimeouts());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.repository;
+
+import org.hibernate.Session;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Lets another thread abort the repository reads running on behalf of a task.
+ * <p>
+ * Work started through {@link #run} binds this token to the worker thread; while
+ * it is bound, every read-only {@link CompanyRepository} call registers its
+ * Hibernate session here, so {@link #cancel} can issue a JDBC
+ * {@code Statement.cancel()} on whatever query is executing at that moment.
+ * Writes are never cancelled.
+ */
+public final class QueryCancellation {
+    private static final ThreadLocal<QueryCancellation> CURRENT = new ThreadLocal<>();
+
+    private volatile boolean cancelled;
+    private Session session;
+
+    public <T> T run(Callable<T> work) throws Exception {
+        CURRENT.set(this);
+        try {
+            throwIfCancelled();
+            return work.call();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    /** Marks the token cancelled and aborts the query currently executing, if any. */
+    public void cancel() {
+        cancelled = true;
+        synchronized (this) {
+            if (session != null) {
+                session.cancelQuery();
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    static QueryCancellation current() {
+        return CURRENT.get();
+    }
+
+    synchronized void attach(Session session) {
+        throwIfCancelled();
+        this.session = session;
+    }
+
+    synchronized void detach() {
+        session = null;
+    }
+
+    private void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Query was superseded");
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.example.repository;
+
+import org.hibernate.cfg.AvailableSettings;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs {@code EXPLAIN} on the SQL behind every {@link CompanyRepository} query
+ * and reports full table scans and sorts, with an {@code @Index} that would
+ * avoid each one.
+ * <p>
+ * The SQL is not rebuilt from the JPQL: each repository method is called once
+ * while the JDBC statements it prepares, and their bound parameters, are
+ * recorded. Those exact statements are then explained, so the plans match what
+ * the methods really run. Recorded statements are not run as written: a query
+ * reads from an empty derived table of itself, and an update reports zero rows,
+ * so no probe reads rows or changes data however large the database is.
+ * Migrations are not applied, and the name index is disabled so the
+ * {@code LIKE} fallbacks are covered.
+ * <p>
+ * Plans are read from H2 and MySQL. They are only meaningful against a seeded
+ * database: on near-empty tables the optimizer scans because it is cheapest.
+ */
+public class QueryPlanAnalyzer {
+    private static final long NO_SUCH_DEPARTMENT = -1L;
+    private static final String SAMPLE_TERM = "an";
+
+    private static final Pattern TABLE_ALIAS = Pattern.compile(
+            "\\b(?:from|join|update)\\s+(\\w+)(?:\\s+(?!where\\b|set\\b|left\\b|right\\b|inner\\b|cross\\b|join\\b|on\\b|order\\b|group\\b|limit\\b)(\\w+))?");
+    private static final Pattern PREDICATE = Pattern.compile(
+            "(?:(\\w+)\\.)?(\\w+)\\s*(=|<>|>=|<=|>|<|\\bin\\b|\\blike\\b|\\bis\\b)");
+    private static final Pattern ORDER_COLUMN = Pattern.compile("(?:(\\w+)\\.)?(\\w+)(?:\\s+(?:asc|desc))?");
+    private static final Pattern H2_TABLE_ACCESS = Pattern.compile(
+            "\"\\w+\"\\.\"(\\w+)\"(?:\\s+\"\\w+\")?\\s*/\\*\\s*([^*]+?)\\s*\\*/");
+
+    private final Map<String, ?> properties;
+
+    /** @param properties overrides for the {@code CompanyPU} properties, as for {@link CompanyRepository} */
+    public QueryPlanAnalyzer(Map<String, ?> properties) {
+        this.properties = properties;
+    }
+
+    /** @return every scan and sort found, including those the method performs by design */
+    public List<PlanFinding> analyze() throws SQLException {
+        RecordingConnectionProvider recorder = new RecordingConnectionProvider();
+        Map<String, Object> settings = new HashMap<>(properties);
+        settings.put(AvailableSettings.CONNECTION_PROVIDER, recorder);
+        settings.put(CompanyRepository.NAME_INDEX_PROPERTY, "false");
+        settings.put(SchemaMigrations.ENABLED_PROPERTY, "false");
+        CompanyRepository repository = new CompanyRepository(settings);
+        try {
+            Long departmentId = repository.inTransaction(em -> em.createQuery(
+                            "SELECT e.department.id FROM Employee e WHERE e.department IS NOT NULL", Long.class)
+                    .setMaxResults(1)
+                    .getResultStream()
+                    .findFirst()
+                    .orElse(NO_SUCH_DEPARTMENT));
+
+            List<PlanFinding> findings = new ArrayList<>();
+            try (Connection connection = recorder.unwrap(DataSource.class).getConnection()) {
+                boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql");
+                for (Probe probe : probes(departmentId)) {
+                    for (RecordedStatement statement : recorder.record(() -> probe.call.accept(repository))) {
+                        findings.addAll(explain(connection, mysql, probe, statement));
+                    }
+                }
+            }
+            return findings;
+        } finally {
+            repository.close();
+        }
+    }
+
+    /** One call per repository query; the flag marks methods that read every row by design. */
+    private static List<Probe> probes(Long departmentId) {
+        List<Probe> probes = new ArrayList<>();
+        // The grouped count behind countEmployeesInDepartment as well; later calls are served from memory.
+        probes.add(new Probe("getHeadcounts", true, r -> r.getHeadcounts()));
+        probes.add(new Probe("getAllDepartments", true, r -> r.getAllDepartments()));
+        probes.add(new Probe("countDepartments", true, r -> r.countDepartments()));
+        probes.add(new Probe("getDepartmentsPage", false, r -> r.getDepartmentsPage(0, 50)));
+        probes.add(new Probe("findDepartmentKeyAfter", false, r -> r.findDepartmentKeyAfter(0, 50)));
+        probes.add(new Probe("findDepartmentByNamePrefix", false, r -> r.findDepartmentByNamePrefix(SAMPLE_TERM, null)));
+        probes.add(new Probe("countDepartmentsBefore", false, r -> r.countDepartmentsBefore(departmentId)));
+        probes.add(new Probe("getEmployeesByDepartment", false, r -> r.getEmployeesByDepartment(departmentId)));
+        probes.add(new Probe("findDepartmentsByName", true, r -> r.findDepartmentsByName(SAMPLE_TERM)));
+        probes.add(new Probe("findEmployeesByName", true, r -> r.findEmployeesByName(SAMPLE_TERM)));
+        probes.add(new Probe("findEmployeesByName(limit)", true, r -> r.findEmployeesByName(SAMPLE_TERM, 50)));
+        probes.add(new Probe("findEmployeeSummariesByName", true, r -> r.findEmployeeSummariesByName(SAMPLE_TERM)));
+        probes.add(new Probe("countEmployeesByName", true, r -> r.countEmployeesByName(SAMPLE_TERM)));
+        probes.add(new Probe("getEmployeesPage", false, r -> r.getEmployeesPage(departmentId, 0, 50)));
+        probes.add(new Probe("findEmployeesByNamePage", true, r -> r.findEmployeesByNamePage(SAMPLE_TERM, 0, 50)));
+        probes.add(new Probe("findEmployeeKeyAfter", false, r -> r.findEmployeeKeyAfter(departmentId, 0, 50)));
+        probes.add(new Probe("findEmployeeKeyAfterByName", true, r -> r.findEmployeeKeyAfterByName(SAMPLE_TERM, 0, 50)));
+        probes.add(new Probe("streamEmployees(department)", false, r -> r.streamEmployees(departmentId, row -> { })));
+        probes.add(new Probe("streamEmployees(all)", true, r -> r.streamEmployees(null, row -> { })));
+        probes.add(new Probe("moveEmployees", false, r -> r.moveEmployees(NO_SUCH_DEPARTMENT, departmentId)));
+        probes.add(new Probe("deleteDepartment", false, r -> r.deleteDepartment(NO_SUCH_DEPARTMENT)));
+        probes.add(new Probe("renameDepartments", false,
+                r -> r.renameDepartments(Collections.singletonMap(NO_SUCH_DEPARTMENT, "-"))));
+        return probes;
+    }
+
+    private static List<PlanFinding> explain(Connection connection, boolean mysql, Probe probe,
+                                             RecordedStatement statement) throws SQLException {
+        String sql = statement.sql.toLowerCase(Locale.ROOT);
+        Map<String, String> tables = tablesByAlias(sql);
+        List<PlanFinding> findings = new ArrayList<>();
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql)) {
+            statement.bind(explain);
+            try (ResultSet plan = explain.executeQuery()) {
+                if (mysql) {
+                    while (plan.next()) {
+                        String table = tables.getOrDefault(plan.getString("table"), plan.getString("table"));
+                        String type = plan.getString("type");
+                        String extra = plan.getString("Extra");
+                        if ("ALL".equals(type) || "index".equals(type)) {
+                            findings.add(finding(probe, sql, tables, table, PlanFinding.Kind.FULL_SCAN));
+                        }
+                        if (extra != null && extra.contains("Using filesort")) {
+                            findings.add(finding(probe, sql, tables, table, PlanFinding.Kind.SORT));
+                        }
+                    }
+                } else {
+                    StringBuilder text = new StringBuilder();
+                    while (plan.next()) {
+                        text.append(plan.getString(1)).append('\n');
+                    }
+                    // H2 notes the access path after each table: "T.tableScan", a bare index
+                    // name for a full index scan, or "INDEX: condition" for a lookup.
+                    Matcher access = H2_TABLE_ACCESS.matcher(text);
+                    String scannedFirst = null;
+                    boolean first = true;
+                    while (access.find()) {
+                        String table = access.group(1).toLowerCase(Locale.ROOT);
+                        if (!access.group(2).contains(":")) {
+                            findings.add(finding(probe, sql, tables, table, PlanFinding.Kind.FULL_SCAN));
+                            scannedFirst = first ? table : scannedFirst;
+                        }
+                        first = false;
+                    }
+                    // H2 never sorts through an index that starts with an equality column, so
+                    // after a lookup it always sorts the matched rows. Only a sort of a whole
+                    // table is worth reporting; MySQL reads such lookups in order from the index.
+                    if (scannedFirst != null && text.indexOf("ORDER BY") >= 0 && text.indexOf("/* index sorted */") < 0) {
+                        findings.add(finding(probe, sql, tables, scannedFirst, PlanFinding.Kind.SORT));
+                    }
+                }
+            }
+        }
+        return findings;
+    }
+
+    private static PlanFinding finding(Probe probe, String sql, Map<String, String> tables, String table,
+                                       PlanFinding.Kind kind) {
+        return new PlanFinding(probe.method, sql, table, kind, probe.scansByDesign,
+                probe.scansByDesign ? null : suggestIndex(sql, tables, table, kind));
+    }
+
+    private static Map<String, String> tablesByAlias(String sql) {
+        Map<String, String> tables = new LinkedHashMap<>();
+        Matcher matcher = TABLE_ALIAS.matcher(sql);
+        while (matcher.find()) {
+            tables.put(matcher.group(1), matcher.group(1));
+            if (matcher.group(2) != null) {
+                tables.put(matcher.group(2), matcher.group(1));
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Builds an index from the table's columns that the statement filters on,
+     * equality first, then at most one range column, then for a sort the
+     * ORDER BY columns. {@code LIKE} columns are left out: the repository's
+     * patterns start with a wildcard, which a B-tree index cannot use.
+     */
+    static String suggestIndex(String sql, Map<String, String> tables, String table, PlanFinding.Kind kind) {
+        String where = clause(sql, " where ", " order by ", " group by ", " limit ", " offset ", " fetch ");
+        Set<String> equality = new LinkedHashSet<>();
+        Set<String> range = new LinkedHashSet<>();
+        if (where != null) {
+            Matcher predicate = PREDICATE.matcher(where);
+            while (predicate.find()) {
+                if (!belongsTo(predicate.group(1), tables, table)) {
+                    continue;
+                }
+                String operator = predicate.group(3);
+                if (operator.equals("like")) {
+                    continue;
+                }
+                (operator.equals("=") || operator.equals("in") || operator.equals("is") ? equality : range)
+                        .add(predicate.group(2));
+            }
+        }
+        Set<String> columns = new LinkedHashSet<>(equality);
+        range.stream().findFirst().ifPresent(columns::add);
+        String order = clause(sql, " order by ", " limit ", " offset ", " fetch ");
+        if (kind == PlanFinding.Kind.SORT && order != null) {
+            for (String term : order.split(",")) {
+                Matcher column = ORDER_COLUMN.matcher(term.trim());
+                if (column.matches() && belongsTo(column.group(1), tables, table)) {
+                    columns.add(column.group(2));
+                }
+            }
+        }
+        // The primary key alone is already indexed.
+        if (columns.isEmpty() || columns.equals(Collections.singleton("id"))) {
+            return null;
+        }
+        return String.format("@Index(name = \"idx_%s_%s\", columnList = \"%s\")",
+                table, String.join("_", columns), String.join(", ", columns));
+    }
+
+    private static boolean belongsTo(String alias, Map<String, String> tables, String table) {
+        if (alias == null) {
+            return new LinkedHashSet<>(tables.values()).size() == 1 && tables.containsValue(table);
+        }
+        return table.equals(tables.get(alias));
+    }
+
+    private static String clause(String sql, String keyword, String... terminators) {
+        int start = sql.indexOf(keyword);
+        if (start < 0) {
+            return null;
+        }
+        start += keyword.length();
+        int end = sql.length();
+        for (String terminator : terminators) {
+            int at = sql.indexOf(terminator, start);
+            if (at >= 0 && at < end) {
+                end = at;
+            }
+        }
+        return sql.substring(start, end);
+    }
+
+    private static final class Probe {
+        final String method;
+        final boolean scansByDesign;
+        final Consumer<CompanyRepository> call;
+
+        Probe(String method, boolean scansByDesign, Consumer<CompanyRepository> call) {
+            this.method = method;
+            this.scansByDesign = scansByDesign;
+            this.call = call;
+        }
+    }
+
+    /** A prepared statement as executed, with the setter calls that bound its parameters. */
+    private static final class RecordedStatement {
+        final String sql;
+        final List<Object[]> setters;
+
+        RecordedStatement(String sql, List<Object[]> setters) {
+            this.sql = sql;
+            this.setters = setters;
+        }
+
+        void bind(PreparedStatement statement) throws SQLException {
+            for (Object[] setter : setters) {
+                invoke(statement, (Method) setter[0], (Object[]) setter[1]);
+            }
+        }
+    }
+
+    /**
+     * Hands out connections that, while {@link #record} runs, remember every
+     * prepared statement executed through them.
+     */
+    private static final class RecordingConnectionProvider extends RoutingConnectionProvider {
+        private final Map<String, RecordedStatement> recorded = Collections.synchronizedMap(new LinkedHashMap<>());
+        private volatile boolean recording;
+
+        /** @return the distinct statements executed by {@code work}, in order */
+        List<RecordedStatement> record(Runnable work) {
+            recorded.clear();
+            recording = true;
+            try {
+                work.run();
+            } catch (RuntimeException e) {
+                // Such as getSingleResult() on the empty result; the statement is recorded by then.
+            } finally {
+                recording = false;
+            }
+            synchronized (recorded) {
+                return new ArrayList<>(recorded.values());
+            }
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (recording && method.getName().equals("prepareStatement")) {
+                            return recordingStatement(connection, (PreparedStatement) result, (String) args[0]);
+                        }
+                        return result;
+                    });
+        }
+
+        private PreparedStatement recordingStatement(Connection connection, PreparedStatement statement, String sql) {
+            List<Object[]> setters = new ArrayList<>();
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                            setters.add(new Object[]{method, args});
+                        } else if (name.equals("clearParameters")) {
+                            setters.clear();
+                        } else if (name.startsWith("execute") && (args == null || args.length == 0)) {
+                            RecordedStatement recordedStatement = new RecordedStatement(sql, new ArrayList<>(setters));
+                            recorded.putIfAbsent(sql, recordedStatement);
+                            return capturedResult(connection, name, recordedStatement);
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        /** What {@code execute*} returns in place of running the recorded statement. */
+        private static Object capturedResult(Connection connection, String method, RecordedStatement statement)
+                throws SQLException {
+            switch (method) {
+                case "executeQuery":
+                    // Same columns as the real query, but the optimizer sees no row can match.
+                    PreparedStatement empty = connection.prepareStatement(
+                            "SELECT * FROM (" + statement.sql + ") captured WHERE 1 = 0");
+                    statement.bind(empty);
+                    empty.closeOnCompletion();
+                    return empty.executeQuery();
+                case "executeUpdate":
+                    return 0;
+                case "executeLargeUpdate":
+                    return 0L;
+                case "executeBatch":
+                    return new int[0];
+                default:
+                    throw new IllegalStateException("Cannot capture " + method + " of " + statement.sql);
+            }
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws SQLException {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
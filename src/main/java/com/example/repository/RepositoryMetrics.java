@@ -0,0 +1,149 @@
+package com.example.repository;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Latency histograms, statement counts and row counts per {@link CompanyRepository}
+ * method, plus the duration of every write transaction.
+ * <p>
+ * Statements are attributed to the method running on the calling thread through
+ * a Hibernate {@link StatementInspector}, so the figures cost a histogram record
+ * and a few counter increments per call rather than SQL logging.
+ */
+public class RepositoryMetrics {
+    static final String TRANSACTIONS = "transaction";
+
+    private final Map<String, Method> methods = new ConcurrentHashMap<>();
+    private final Method transactions = new Method(TRANSACTIONS);
+    private final ThreadLocal<long[]> currentStatements = new ThreadLocal<>();
+
+    /**
+     * Runs {@code call} as repository method {@code name}. Calls nested in another
+     * measured call are attributed to the outer one.
+     */
+    <T> T time(String name, Supplier<T> call) {
+        if (currentStatements.get() != null) {
+            return call.get();
+        }
+        Method method = methods.computeIfAbsent(name, Method::new);
+        long[] statements = new long[1];
+        currentStatements.set(statements);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = call.get();
+            failed = false;
+            method.rows.add(rowCount(result));
+            return result;
+        } finally {
+            currentStatements.remove();
+            method.record(System.nanoTime() - start, statements[0], failed);
+        }
+    }
+
+    void recordTransaction(long nanos, boolean failed) {
+        transactions.record(nanos, 0, failed);
+    }
+
+    StatementInspector statementInspector() {
+        return new CountingInspector(this);
+    }
+
+    /** @return figures for every method called so far, by name */
+    public List<MethodStats> getMethods() {
+        List<MethodStats> result = new ArrayList<>();
+        methods.values().stream()
+                .sorted((a, b) -> a.name.compareTo(b.name))
+                .forEach(method -> result.add(method.snapshot()));
+        return result;
+    }
+
+    /** @return durations of write transactions, from begin to commit or rollback */
+    public MethodStats getTransactions() {
+        return transactions.snapshot();
+    }
+
+    public void reset() {
+        methods.clear();
+        transactions.reset();
+    }
+
+    private static long rowCount(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        return 1;
+    }
+
+    private static final class Method {
+        final String name;
+        // Microseconds; auto-resizing so a pathological call cannot overflow it.
+        final Histogram latency = new ConcurrentHistogram(3);
+        final LongAdder errors = new LongAdder();
+        final LongAdder statements = new LongAdder();
+        final LongAdder rows = new LongAdder();
+
+        Method(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos, long statementCount, boolean failed) {
+            latency.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+            statements.add(statementCount);
+            if (failed) {
+                errors.increment();
+            }
+        }
+
+        void reset() {
+            latency.reset();
+            errors.reset();
+            statements.reset();
+            rows.reset();
+        }
+
+        MethodStats snapshot() {
+            Histogram copy = latency.copy();
+            return new MethodStats(name, copy.getTotalCount(), errors.sum(),
+                    copy.getValueAtPercentile(50) / 1_000.0,
+                    copy.getValueAtPercentile(99) / 1_000.0,
+                    copy.getMaxValue() / 1_000.0,
+                    statements.sum(), rows.sum());
+        }
+    }
+
+    /** Counts every statement Hibernate prepares towards the method running on that thread. */
+    private static final class CountingInspector implements StatementInspector {
+        private final transient RepositoryMetrics metrics;
+
+        CountingInspector(RepositoryMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            long[] statements = metrics.currentStatements.get();
+            if (statements != null) {
+                statements[0]++;
+            }
+            return sql;
+        }
+    }
+}
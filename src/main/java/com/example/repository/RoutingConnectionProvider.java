@@ -0,0 +1,158 @@
+package com.example.repository;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.hikaricp.internal.HikariCPConnectionProvider;
+import org.hibernate.hikaricp.internal.HikariConfigurationUtil;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands out primary connections for writes and replica connections for reads.
+ * <p>
+ * The primary is an ordinary HikariCP pool configured from the
+ * {@code hibernate.hikari.*} settings. Each URL in {@link #REPLICA_URLS_PROPERTY}
+ * gets a read-only pool of its own, with the same credentials. A connection goes
+ * to a replica only while the calling thread runs inside {@link #onReplica};
+ * {@link CompanyRepository} does that for its read-only operations. Replicas are
+ * used round-robin. One that fails to hand out a connection is skipped for
+ * {@link #REPLICA_COOLDOWN_PROPERTY} milliseconds, and when none is available
+ * the read falls back to the primary.
+ */
+public class RoutingConnectionProvider implements ConnectionProvider, Configurable, Stoppable {
+    /** Comma-separated JDBC URLs of read replicas; empty or absent for none. */
+    public static final String REPLICA_URLS_PROPERTY = "company.replicas.urls";
+    /** How long a failed replica is left out of the rotation, in milliseconds. */
+    public static final String REPLICA_COOLDOWN_PROPERTY = "company.replicas.cooldown-ms";
+    /** How long a replica may take to hand out a connection before failing over, in milliseconds. */
+    public static final String REPLICA_TIMEOUT_PROPERTY = "company.replicas.connection-timeout-ms";
+
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+    // Pool names double as JMX names, so they must be unique in the JVM.
+    private static final AtomicInteger REPLICA_POOLS = new AtomicInteger();
+
+    private final HikariCPConnectionProvider primary = new HikariCPConnectionProvider();
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private long cooldownNanos;
+
+    /** Runs {@code work} with connections taken from a replica when one is available. */
+    static <T> T onReplica(Supplier<T> work) {
+        Boolean previous = READ_ONLY.get();
+        READ_ONLY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                READ_ONLY.remove();
+            } else {
+                READ_ONLY.set(previous);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void configure(Map settings) {
+        primary.configure(settings);
+        cooldownNanos = TimeUnit.MILLISECONDS.toNanos(
+                Long.parseLong(String.valueOf(settings.getOrDefault(REPLICA_COOLDOWN_PROPERTY, "30000"))));
+        long timeout = Long.parseLong(String.valueOf(settings.getOrDefault(REPLICA_TIMEOUT_PROPERTY, "2000")));
+        String urls = String.valueOf(settings.getOrDefault(REPLICA_URLS_PROPERTY, "")).trim();
+        if (urls.isEmpty()) {
+            return;
+        }
+        for (String url : urls.split(",")) {
+            Map<Object, Object> replicaSettings = new HashMap<>(settings);
+            replicaSettings.put(AvailableSettings.URL, url.trim());
+            replicaSettings.put(AvailableSettings.JPA_JDBC_URL, url.trim());
+            HikariConfig config = HikariConfigurationUtil.loadConfiguration(replicaSettings);
+            config.setPoolName("replica-" + REPLICA_POOLS.incrementAndGet());
+            config.setReadOnly(true);
+            config.setConnectionTimeout(timeout);
+            // A replica that is down at startup must not stop the application.
+            config.setInitializationFailTimeout(-1);
+            replicas.add(new Replica(new HikariDataSource(config)));
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (Boolean.TRUE.equals(READ_ONLY.get()) && !replicas.isEmpty()) {
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (!replica.isAvailable()) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    replica.markDown(cooldownNanos);
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        // Pooled connections know which pool they belong to.
+        connection.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    /** Unwraps to the primary's pool, which is what migrations and pool metrics need. */
+    @Override
+    public boolean isUnwrappableAs(Class unwrapType) {
+        return primary.isUnwrappableAs(unwrapType);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> unwrapType) {
+        return primary.unwrap(unwrapType);
+    }
+
+    @Override
+    public void stop() {
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+        primary.stop();
+    }
+
+    private static final class Replica {
+        final HikariDataSource dataSource;
+        private volatile long downUntil;
+        private volatile boolean down;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        boolean isAvailable() {
+            return !down || System.nanoTime() - downUntil >= 0;
+        }
+
+        void markDown(long cooldownNanos) {
+            downUntil = System.nanoTime() + cooldownNanos;
+            down = true;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.repository;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Applies the versioned SQL scripts under {@code db/migration} with Flyway while
+ * the session factory is being built, before Hibernate's own schema tooling
+ * would run. Each script runs once and is checksummed, so a routine startup only
+ * reads the history table and {@code hbm2ddl} can stay off.
+ * <p>
+ * A database that already has tables but no migration history (created by
+ * {@code hbm2ddl.auto=update}) is baselined at version 1 instead of re-created.
+ */
+class SchemaMigrations implements Integrator {
+    /** Set to {@code false} to leave the schema alone, e.g. when tests let Hibernate create it. */
+    static final String ENABLED_PROPERTY = "company.migrations.enabled";
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        Map<?, ?> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        if (!Boolean.parseBoolean(String.valueOf(settings.get(ENABLED_PROPERTY)))) {
+            return;
+        }
+        ConnectionProvider connections = serviceRegistry.getService(ConnectionProvider.class);
+        DataSource dataSource = connections.isUnwrappableAs(DataSource.class)
+                ? connections.unwrap(DataSource.class)
+                : null;
+        FluentConfiguration flyway = Flyway.configure()
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1");
+        if (dataSource != null) {
+            flyway.dataSource(dataSource);
+        } else {
+            flyway.dataSource((String) settings.get("javax.persistence.jdbc.url"),
+                    (String) settings.get("javax.persistence.jdbc.user"),
+                    (String) settings.get("javax.persistence.jdbc.password"));
+        }
+        flyway.load().migrate();
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.repository;
+
+import com.example.dto.EmployeeSummary;
+import com.example.entity.Department;
+import com.example.entity.Employee;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Company data partitioned over several databases, one {@link CompanyRepository}
+ * per shard.
+ * <p>
+ * Employees live on the shard chosen by their department id, so everything about
+ * one department is answered by one database. Departments are small and are
+ * written to every shard with the same id, which keeps the employee foreign key
+ * intact on each of them. Searches across departments run on all shards in
+ * parallel and are merged.
+ * <p>
+ * Employee ids come from each shard's own sequence and are only unique within
+ * it. The department id picks the shard, so department and employee id together
+ * identify an employee; merged results are ordered by employee id, then by
+ * department id.
+ */
+public class ShardedCompanyRepository implements AutoCloseable {
+    private static final Comparator<Long> NULLS_FIRST = Comparator.nullsFirst(Comparator.naturalOrder());
+    private static final Comparator<EmployeeSummary> SUMMARY_ORDER =
+            Comparator.comparing(EmployeeSummary::getId).thenComparing(EmployeeSummary::getDepartmentId, NULLS_FIRST);
+    private static final Comparator<Employee> EMPLOYEE_ORDER =
+            Comparator.comparing(Employee::getId).thenComparing(
+                    e -> e.getDepartment() != null ? e.getDepartment().getId() : null, NULLS_FIRST);
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final List<CompanyRepository> shards = new ArrayList<>();
+    private final ExecutorService fanOut;
+
+    /**
+     * @param shardProperties per shard, overrides for the {@code CompanyPU} properties
+     *                        that point it at its database; the order fixes which
+     *                        departments each shard holds and must not change
+     */
+    public ShardedCompanyRepository(List<? extends Map<String, ?>> shardProperties) {
+        if (shardProperties.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        int instance = INSTANCES.incrementAndGet();
+        try {
+            for (int i = 0; i < shardProperties.size(); i++) {
+                Map<String, Object> settings = new HashMap<>(shardProperties.get(i));
+                // Employee ids repeat across shards, so their cache entries must not be shared.
+                settings.merge("hibernate.cache.region_prefix", "shard-" + instance + "-" + i,
+                        (prefix, shard) -> prefix + "-" + shard);
+                shards.add(new CompanyRepository(settings));
+            }
+        } catch (RuntimeException e) {
+            shards.forEach(CompanyRepository::close);
+            throw e;
+        }
+        AtomicInteger threads = new AtomicInteger();
+        fanOut = Executors.newFixedThreadPool(shards.size(), runnable -> {
+            Thread thread = new Thread(runnable, "shard-query-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /** The shard that holds the employees of {@code departmentId}; employees without one go to the first. */
+    int shardIndex(Long departmentId) {
+        return departmentId == null ? 0 : Math.floorMod(Long.hashCode(departmentId), shards.size());
+    }
+
+    CompanyRepository shard(int index) {
+        return shards.get(index);
+    }
+
+    private CompanyRepository shardFor(Long departmentId) {
+        return shards.get(shardIndex(departmentId));
+    }
+
+    /**
+     * Creates the department on the first shard, which assigns its id, then copies
+     * it to the others. If a copy fails the exception propagates and the department
+     * exists only on the shards written so far.
+     */
+    public void addDepartment(Department department) {
+        shards.get(0).addDepartment(department);
+        for (int i = 1; i < shards.size(); i++) {
+            shards.get(i).inTransaction(em -> em.createNativeQuery("INSERT INTO department (id, name) VALUES (?, ?)")
+                    .setParameter(1, department.getId())
+                    .setParameter(2, department.getName())
+                    .executeUpdate());
+        }
+    }
+
+    public List<Department> getAllDepartments() {
+        return shards.get(0).getAllDepartments();
+    }
+
+    public void addEmployee(Employee employee) {
+        Department department = employee.getDepartment();
+        shardFor(department != null ? department.getId() : null).addEmployee(employee);
+    }
+
+    public List<Employee> getEmployeesByDepartment(Long departmentId) {
+        return shardFor(departmentId).getEmployeesByDepartment(departmentId);
+    }
+
+    public Long countEmployeesInDepartment(Long departmentId) {
+        return shardFor(departmentId).countEmployeesInDepartment(departmentId);
+    }
+
+    public List<EmployeeSummary> getEmployeesPage(Long departmentId, long afterId, int limit) {
+        return shardFor(departmentId).getEmployeesPage(departmentId, afterId, limit);
+    }
+
+    /** @return employee count by department id, gathered from every shard */
+    public Map<Long, Long> getHeadcounts() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Map<Long, Long> shardCounts : onEveryShard(CompanyRepository::getHeadcounts)) {
+            counts.putAll(shardCounts);
+        }
+        return counts;
+    }
+
+    /**
+     * Searches every shard in parallel. Each returns at most {@code limit} matches
+     * in id order, so the first {@code limit} of the merged lists are the global answer.
+     */
+    public List<Employee> findEmployeesByName(String namePattern, int limit) {
+        return merge(onEveryShard(shard -> shard.findEmployeesByName(namePattern, limit)), EMPLOYEE_ORDER, limit);
+    }
+
+    /** Like {@link #findEmployeesByName}, returning projections. */
+    public List<EmployeeSummary> findEmployeeSummariesByName(String namePattern, int limit) {
+        return merge(onEveryShard(shard -> shard.findEmployeesByNamePage(namePattern, 0, limit)), SUMMARY_ORDER, limit);
+    }
+
+    public Long countEmployeesByName(String namePattern) {
+        long total = 0;
+        for (Long count : onEveryShard(shard -> shard.countEmployeesByName(namePattern))) {
+            total += count;
+        }
+        return total;
+    }
+
+    /** Runs {@code query} on all shards at once and waits for every result. */
+    private <T> List<T> onEveryShard(Function<CompanyRepository, T> query) {
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        for (CompanyRepository shard : shards) {
+            futures.add(fanOut.submit(() -> query.apply(shard)));
+        }
+        List<T> results = new ArrayList<>(shards.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying shards", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    private static <T> List<T> merge(List<List<T>> perShard, Comparator<? super T> order, int limit) {
+        List<T> merged = new ArrayList<>();
+        perShard.forEach(merged::addAll);
+        merged.sort(order);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    @Override
+    public void close() {
+        fanOut.shutdownNow();
+        shards.forEach(CompanyRepository::close);
+    }
+}
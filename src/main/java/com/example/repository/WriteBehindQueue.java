@@ -0,0 +1,220 @@
+package com.example.repository;
+
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inserts departments and employees asynchronously with group commit.
+ * <p>
+ * Callers enqueue entities and get a future for the generated id. A single
+ * writer thread drains the queue into one transaction of up to
+ * {@code maxBatchSize} inserts. It waits at most {@code maxDelayMillis} after the
+ * first item for more to arrive, so under load many inserts share one commit.
+ * When the queue is full, {@link #addEmployee} and {@link #addDepartment} block
+ * until the writer catches up.
+ * <p>
+ * If a batch fails, each of its items is retried in a transaction of its own, so
+ * one bad row fails only its own future. Futures complete on the writer thread;
+ * callers should not block it with long-running callbacks.
+ */
+public class WriteBehindQueue implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 10_000;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 500;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 5;
+
+    private static final Pending STOP = new Pending(null, null);
+
+    private final CompanyRepository repository;
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Thread writer;
+    // Enqueuers share it while they check and put; close() takes it alone to set
+    // closed, so nothing can be put after the writer has been told to stop.
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    public WriteBehindQueue(CompanyRepository repository) {
+        this(repository, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    public WriteBehindQueue(CompanyRepository repository, int capacity, int maxBatchSize, long maxDelayMillis) {
+        if (maxBatchSize <= 0 || capacity < maxBatchSize || maxDelayMillis < 0) {
+            throw new IllegalArgumentException("Need 0 < maxBatchSize <= capacity and maxDelayMillis >= 0");
+        }
+        this.repository = repository;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.writer = new Thread(this::drain, "write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** Queues {@code department} for insertion; blocks while the queue is full. */
+    public CompletableFuture<Long> addDepartment(Department department) throws InterruptedException {
+        return enqueue(department);
+    }
+
+    /**
+     * Queues {@code employee} for insertion; blocks while the queue is full. Its
+     * department must already exist or be queued before it.
+     */
+    public CompletableFuture<Long> addEmployee(Employee employee) throws InterruptedException {
+        return enqueue(employee);
+    }
+
+    private CompletableFuture<Long> enqueue(Object entity) throws InterruptedException {
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Write-behind queue is closed");
+            }
+            Pending pending = new Pending(entity, new CompletableFuture<>());
+            // The writer is still running, so a full queue drains and this returns.
+            queue.put(pending);
+            return pending.future;
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /** Writes everything already queued, then stops the writer. */
+    @Override
+    public void close() throws InterruptedException {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        queue.put(STOP);
+        writer.join();
+        failAbandoned();
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                Pending first = queue.take();
+                if (first == STOP) {
+                    break;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    if (next == STOP) {
+                        stopping = true;
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                stopping = true;
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        failAbandoned();
+    }
+
+    /** Fails the futures of items the writer stopped before reaching. */
+    private void failAbandoned() {
+        List<Pending> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        for (Pending pending : abandoned) {
+            if (pending != STOP) {
+                pending.future.completeExceptionally(new IllegalStateException("Write-behind queue is closed"));
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        try {
+            insert(batch);
+        } catch (RuntimeException batchFailure) {
+            // Find the culprit: ids assigned during the failed attempt were rolled back.
+            batch.forEach(Pending::clearId);
+            for (Pending pending : batch) {
+                try {
+                    insert(List.of(pending));
+                } catch (RuntimeException e) {
+                    pending.clearId();
+                    pending.future.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    /** Inserts {@code batch} in one transaction and completes its futures once it commits. */
+    private void insert(List<Pending> batch) {
+        repository.inTransaction(em -> {
+            em.unwrap(Session.class).setJdbcBatchSize(batch.size());
+            for (Pending pending : batch) {
+                em.persist(pending.entity);
+            }
+            return null;
+        }, committed -> {
+            List<Department> departments = new ArrayList<>();
+            List<Employee> employees = new ArrayList<>();
+            for (Pending pending : batch) {
+                if (pending.entity instanceof Department) {
+                    departments.add((Department) pending.entity);
+                } else {
+                    employees.add((Employee) pending.entity);
+                }
+            }
+            repository.departmentsInserted(departments);
+            repository.employeesInserted(employees);
+        });
+        for (Pending pending : batch) {
+            pending.future.complete(pending.id());
+        }
+    }
+
+    private static final class Pending {
+        final Object entity;
+        final CompletableFuture<Long> future;
+
+        Pending(Object entity, CompletableFuture<Long> future) {
+            this.entity = entity;
+            this.future = future;
+        }
+
+        Long id() {
+            return entity instanceof Department ? ((Department) entity).getId() : ((Employee) entity).getId();
+        }
+
+        void clearId() {
+            if (future.isDone()) {
+                return;
+            }
+            if (entity instanceof Department) {
+                ((Department) entity).setId(null);
+            } else {
+                ((Employee) entity).setId(null);
+            }
+        }
+    }
+}
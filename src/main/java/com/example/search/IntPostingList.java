@@ -0,0 +1,80 @@
+package com.example.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted, duplicate-free list of int ids backed by a plain {@code int[]}.
+ * Appending ids in ascending order (the usual case for new rows) is amortised O(1).
+ */
+final class IntPostingList {
+    private int[] ids = new int[4];
+    private int size;
+
+    boolean add(int id) {
+        if (size == 0 || ids[size - 1] < id) {
+            ensureCapacity();
+            ids[size++] = id;
+            return true;
+        }
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) {
+            return false;
+        }
+        int insertAt = -pos - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+        return true;
+    }
+
+    boolean remove(int id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    /** Intersects {@code candidates} (sorted) with this list, returning a new sorted array. */
+    int[] retainAll(int[] candidates) {
+        int[] result = new int[Math.min(candidates.length, size)];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < candidates.length && j < size) {
+            int a = candidates[i];
+            int b = ids[j];
+            if (a == b) {
+                result[n++] = a;
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.search;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory trigram index that turns a substring search into a small set of
+ * candidate ids, so the database can fetch by primary key instead of scanning
+ * with {@code LIKE '%term%'}.
+ * <p>
+ * Names are folded the same way MySQL's default accent- and case-insensitive
+ * collation compares them, so the candidates are always a superset of what
+ * {@code LIKE} would match. They can contain false positives (all trigrams
+ * present but not adjacent), so callers must still check the name.
+ * <p>
+ * Thread-safe. Ids must fit in an {@code int}; an index that has seen a larger id
+ * stops answering queries.
+ */
+public class TrigramIndex {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final Map<Long, IntPostingList> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+    private boolean overflowed;
+    private int size;
+    private long version;
+
+    /** Marks the initial build as complete; until then {@link #candidates} returns {@code null}. */
+    public void markReady() {
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void add(long id, String name) {
+        lock.writeLock().lock();
+        try {
+            if (id > Integer.MAX_VALUE || id < 0) {
+                overflowed = true;
+                return;
+            }
+            boolean added = false;
+            for (long trigram : trigrams(name)) {
+                added |= postings.computeIfAbsent(trigram, k -> new IntPostingList()).add((int) id);
+            }
+            if (added) {
+                size++;
+                version++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id, String name) {
+        if (id > Integer.MAX_VALUE || id < 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            boolean removed = false;
+            for (long trigram : trigrams(name)) {
+                IntPostingList list = postings.get(trigram);
+                if (list != null && list.remove((int) id)) {
+                    removed = true;
+                    if (list.isEmpty()) {
+                        postings.remove(trigram);
+                    }
+                }
+            }
+            if (removed) {
+                size--;
+                version++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return sorted candidate ids for names containing {@code term}, or {@code null}
+     * if the index cannot answer (not built yet, term shorter than three
+     * characters or containing LIKE wildcards, or ids out of range)
+     */
+    public long[] candidates(String term) {
+        Set<Long> terms = trigrams(term);
+        // LIKE wildcards inside the term match things the trigrams cannot see.
+        if (!ready || terms.isEmpty() || term.indexOf('%') >= 0 || term.indexOf('_') >= 0) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            if (overflowed) {
+                return null;
+            }
+            // Intersect the shortest lists first so the working set shrinks quickly.
+            List<IntPostingList> lists = new ArrayList<>(terms.size());
+            for (long trigram : terms) {
+                IntPostingList list = postings.get(trigram);
+                if (list == null) {
+                    return new long[0];
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(IntPostingList::size));
+            int[] result = lists.get(0).toArray();
+            for (int i = 1; i < lists.size() && result.length > 0; i++) {
+                result = lists.get(i).retainAll(result);
+            }
+            long[] ids = new long[result.length];
+            for (int i = 0; i < result.length; i++) {
+                ids[i] = result[i];
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of indexed names. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Changes whenever the index content changes; lets callers cache query results. */
+    public long version() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Lower-cases {@code text} and strips accents, the way name comparisons ignore them. */
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .replace('\u0111', 'd')
+                .replace('\u0110', 'D')
+                .toLowerCase(Locale.ROOT);
+    }
+
+    static Set<Long> trigrams(String text) {
+        if (text == null) {
+            return Collections.emptySet();
+        }
+        String folded = fold(text);
+        Set<Long> result = new HashSet<>();
+        for (int i = 0; i + 3 <= folded.length(); i++) {
+            result.add(((long) folded.charAt(i) << 32) | ((long) folded.charAt(i + 1) << 16) | folded.charAt(i + 2));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.ui;
+
+import com.example.repository.QueryCancellation;
+
+import javax.swing.*;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs repository calls on a bounded background executor and hands the results
+ * back to the Event Dispatch Thread.
+ * <p>
+ * Every request is submitted under a key (usually the widget it feeds). A newer
+ * request for the same key supersedes the older one: the older task is cancelled
+ * if it has not started yet, and if it has, the query it is running is cancelled
+ * through {@link QueryCancellation} and its result is dropped.
+ */
+public class AsyncDataLoader {
+    private final ThreadPoolExecutor executor;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Consumer<Boolean> busyListener;
+
+    /**
+     * @param threads      number of worker threads
+     * @param queueSize    maximum number of requests waiting for a worker
+     * @param busyListener called on the EDT with {@code true} when the first request
+     *                     starts and {@code false} when the last one finishes
+     */
+    public AsyncDataLoader(int threads, int queueSize, Consumer<Boolean> busyListener) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "data-loader-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.busyListener = busyListener;
+    }
+
+    /**
+     * Submits {@code query} under {@code key}. {@code onSuccess} or {@code onError}
+     * runs on the EDT unless a newer request for the same key arrived in the meantime.
+     */
+    public <T> void submit(String key, Callable<T> query, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        long generation = generations.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        InFlight previous = inFlight.remove(key);
+        if (previous != null) {
+            previous.cancel();
+        }
+
+        QueryCancellation cancellation = new QueryCancellation();
+        FutureTask<T> task = new FutureTask<T>(() -> cancellation.run(query)) {
+            @Override
+            protected void done() {
+                inFlight.computeIfPresent(key, (k, current) -> current.future == this ? null : current);
+                if (!isCancelled()) {
+                    deliver(key, generation, this, onSuccess, onError);
+                }
+                // Runs on the worker (or the canceller) thread; hop to the EDT for the indicator.
+                markFinished();
+            }
+        };
+
+        markStarted();
+        InFlight entry = new InFlight(task, cancellation);
+        inFlight.put(key, entry);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, entry);
+            task.cancel(false);
+            SwingUtilities.invokeLater(() -> onError.accept(
+                    new IllegalStateException("Too many pending requests, please try again.", e)));
+        }
+    }
+
+    /**
+     * Runs {@code work}, such as a write, on the same executor. Unlike
+     * {@link #submit} it is never superseded or cancelled, so {@code onSuccess} or
+     * {@code onError} always runs on the EDT.
+     */
+    public <T> void execute(Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        FutureTask<T> task = new FutureTask<T>(work) {
+            @Override
+            protected void done() {
+                SwingUtilities.invokeLater(() -> {
+                    try {
+                        onSuccess.accept(get());
+                    } catch (ExecutionException e) {
+                        onError.accept(e.getCause());
+                    } catch (InterruptedException | CancellationException e) {
+                        // Shutting down; nothing to show.
+                    }
+                });
+                markFinished();
+            }
+        };
+
+        markStarted();
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.cancel(false);
+            SwingUtilities.invokeLater(() -> onError.accept(
+                    new IllegalStateException("Too many pending requests, please try again.", e)));
+        }
+    }
+
+    /**
+     * Supersedes every pending request whose key starts with {@code keyPrefix}
+     * without submitting a replacement.
+     */
+    public void cancel(String keyPrefix) {
+        for (String key : inFlight.keySet()) {
+            if (key.startsWith(keyPrefix)) {
+                generations.get(key).incrementAndGet();
+                InFlight entry = inFlight.remove(key);
+                if (entry != null) {
+                    entry.cancel();
+                }
+            }
+        }
+    }
+
+    private <T> void deliver(String key, long generation, Future<T> task,
+                             Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        SwingUtilities.invokeLater(() -> {
+            if (generations.get(key).get() != generation) {
+                return;
+            }
+            try {
+                onSuccess.accept(task.get());
+            } catch (ExecutionException e) {
+                onError.accept(e.getCause());
+            } catch (InterruptedException | CancellationException e) {
+                // Superseded or shutting down; nothing to show.
+            }
+        });
+    }
+
+    private void markStarted() {
+        if (pending.getAndIncrement() == 0) {
+            SwingUtilities.invokeLater(() -> {
+                if (pending.get() > 0) {
+                    busyListener.accept(true);
+                }
+            });
+        }
+    }
+
+    private void markFinished() {
+        if (pending.decrementAndGet() == 0) {
+            SwingUtilities.invokeLater(() -> {
+                if (pending.get() == 0) {
+                    busyListener.accept(false);
+                }
+            });
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class InFlight {
+        final Future<?> future;
+        final QueryCancellation cancellation;
+
+        InFlight(Future<?> future, QueryCancellation cancellation) {
+            this.future = future;
+            this.cancellation = cancellation;
+        }
+
+        void cancel() {
+            // Not interrupted: the JDBC statement is cancelled instead, which the driver handles cleanly.
+            future.cancel(false);
+            cancellation.cancel();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.ui;
+
+import com.example.dto.DepartmentSummary;
+
+import javax.swing.*;
+import javax.swing.plaf.basic.ComboPopup;
+
+/**
+ * Combo box over a {@link DepartmentComboBoxModel} that never walks the model.
+ * <p>
+ * {@link JComboBox} finds the selected index, and matches typed keys, by calling
+ * {@code getElementAt} for every row, which here would page in every department.
+ * This class asks the model for the index instead, sizes cells from a prototype
+ * rather than from the rows, and hands type-ahead to a name index query.
+ */
+public class DepartmentComboBox extends JComboBox<DepartmentSummary> {
+    /** Typed characters further apart than this start a new prefix. */
+    private static final long TYPE_AHEAD_RESET_MILLIS = 1000;
+    private static final DepartmentSummary PROTOTYPE = new DepartmentSummary(null, "Research and Development Department");
+
+    private final DepartmentComboBoxModel departments;
+
+    public DepartmentComboBox(DepartmentComboBoxModel model) {
+        super(model);
+        this.departments = model;
+        setPrototypeDisplayValue(PROTOTYPE);
+        setKeySelectionManager(new PrefixSelectionManager());
+    }
+
+    @Override
+    public void updateUI() {
+        super.updateUI();
+        // The popup list would otherwise measure every row to size itself.
+        if (getUI().getAccessibleChildrenCount(this) > 0
+                && getUI().getAccessibleChild(this, 0) instanceof ComboPopup) {
+            ((ComboPopup) getUI().getAccessibleChild(this, 0)).getList().setPrototypeCellValue(PROTOTYPE);
+        }
+    }
+
+    @Override
+    public void setSelectedItem(Object item) {
+        departments.setSelectedItem(item);
+    }
+
+    @Override
+    public void setSelectedIndex(int index) {
+        if (index < -1 || index >= dataModel.getSize()) {
+            throw new IllegalArgumentException("setSelectedIndex: " + index + " out of bounds");
+        }
+        if (index == -1) {
+            departments.select(null, -1);
+            return;
+        }
+        DepartmentSummary department = dataModel.getElementAt(index);
+        if (department != DepartmentComboBoxModel.LOADING) {
+            departments.select(department, index);
+        }
+    }
+
+    @Override
+    public int getSelectedIndex() {
+        return departments.getSelectedIndex();
+    }
+
+    private class PrefixSelectionManager implements KeySelectionManager {
+        private final StringBuilder prefix = new StringBuilder();
+        private long lastKeyTime;
+
+        @Override
+        public int selectionForKey(char key, ComboBoxModel<?> model) {
+            long now = System.currentTimeMillis();
+            if (now - lastKeyTime > TYPE_AHEAD_RESET_MILLIS) {
+                prefix.setLength(0);
+            }
+            lastKeyTime = now;
+            // Typing the same letter again moves on to the next department that starts with it.
+            boolean repeat = prefix.length() == 1 && prefix.charAt(0) == key;
+            if (!repeat) {
+                prefix.append(key);
+            }
+            departments.selectByPrefix(prefix.toString(), repeat);
+            // The lookup answers asynchronously; the model selects the match itself.
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.ui;
+
+import com.example.dto.DepartmentSummary;
+import com.example.repository.CompanyRepository;
+import com.example.search.TrigramIndex;
+
+import javax.swing.*;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Department list for the combo box, paged in from the database as the popup
+ * scrolls by a {@link KeysetPager}, the same way {@link EmployeeTableModel} pages
+ * employees.
+ * <p>
+ * Only id/name pairs are held, and only the most recently used
+ * {@link #MAX_CACHED_PAGES} pages of them, so memory stays bounded however many
+ * departments exist. Rows not loaded yet show {@link #LOADING} until their page
+ * arrives. A department newer than every loaded row is appended with one
+ * interval event; any other change reloads.
+ */
+public class DepartmentComboBoxModel extends AbstractListModel<DepartmentSummary>
+        implements ComboBoxModel<DepartmentSummary> {
+    static final int PAGE_SIZE = 200;
+    static final int MAX_CACHED_PAGES = 10;
+    /** Placeholder for a row whose page is still loading; it cannot be selected. */
+    static final DepartmentSummary LOADING = new DepartmentSummary(null, "Loading…");
+
+    /** Where the departments come from: all of them, or a search result. */
+    public interface PageSource extends KeysetPager.PageSource<DepartmentSummary> {
+        /** First department, by name then id, that starts with {@code prefix} and sorts after {@code after}. */
+        DepartmentSummary findByPrefix(String prefix, DepartmentSummary after);
+
+        /** Row index of {@code department}. */
+        long indexOf(DepartmentSummary department);
+
+        static PageSource all(CompanyRepository repository) {
+            return new PageSource() {
+                @Override
+                public long count() {
+                    return repository.countDepartments();
+                }
+
+                @Override
+                public List<DepartmentSummary> page(long afterId, int limit) {
+                    return repository.getDepartmentsPage(afterId, limit);
+                }
+
+                @Override
+                public Long keyAfter(long afterId, int offset) {
+                    return repository.findDepartmentKeyAfter(afterId, offset);
+                }
+
+                @Override
+                public DepartmentSummary findByPrefix(String prefix, DepartmentSummary after) {
+                    return repository.findDepartmentByNamePrefix(prefix, after);
+                }
+
+                @Override
+                public long indexOf(DepartmentSummary department) {
+                    return repository.countDepartmentsBefore(department.getId());
+                }
+            };
+        }
+
+        /** Rows already in memory, sorted by id, such as a search result. The list is copied. */
+        static PageSource of(List<DepartmentSummary> rows) {
+            return new RowList(rows);
+        }
+    }
+
+    private static final class RowList extends KeysetPager.RowList<DepartmentSummary> implements PageSource {
+        private static final Comparator<DepartmentSummary> BY_NAME = Comparator.comparing(DepartmentSummary::getName)
+                .thenComparing(DepartmentSummary::getId);
+
+        RowList(List<DepartmentSummary> rows) {
+            super(rows, DepartmentSummary::getId);
+        }
+
+        @Override
+        public DepartmentSummary findByPrefix(String prefix, DepartmentSummary after) {
+            String folded = TrigramIndex.fold(prefix);
+            return rows().stream()
+                    .filter(row -> TrigramIndex.fold(row.getName()).startsWith(folded))
+                    .filter(row -> after == null || BY_NAME.compare(row, after) > 0)
+                    .min(BY_NAME)
+                    .orElse(null);
+        }
+
+        @Override
+        public long indexOf(DepartmentSummary department) {
+            return rows().indexOf(department);
+        }
+    }
+
+    private final AsyncDataLoader loader;
+    private final Consumer<Throwable> onError;
+    private final KeysetPager<DepartmentSummary> pager;
+    private PageSource source;
+    private DepartmentSummary selected;
+    private int selectedIndex = -1;
+
+    public DepartmentComboBoxModel(AsyncDataLoader loader, Consumer<Throwable> onError) {
+        this.loader = loader;
+        this.onError = onError;
+        pager = new KeysetPager<>(loader, "departmentCombo:", PAGE_SIZE, MAX_CACHED_PAGES, DepartmentSummary::getId,
+                this::pageLoaded, onError);
+    }
+
+    /**
+     * Switches to a new row source. The selection is kept if its department is
+     * on the first page of the new rows; otherwise the first department is selected.
+     */
+    public void setSource(PageSource source) {
+        this.source = source;
+        pager.setSource(source);
+        selectedIndex = -1;
+        fireContentsChanged(this, -1, -1);
+        pager.loadCount(count -> {
+            fireContentsChanged(this, -1, -1);
+            if (pager.size() > 0) {
+                // Loading the first page settles the selection.
+                getElementAt(0);
+            } else {
+                select(null, -1);
+            }
+        });
+    }
+
+    /** Reloads the current source, e.g. after a department was removed. */
+    public void reload() {
+        if (source != null) {
+            setSource(source);
+        }
+    }
+
+    /** Appends a new department, or reloads if it cannot be placed without knowing every row. */
+    public void add(DepartmentSummary department) {
+        if (source == null || pager.indexOfLoaded(department) >= 0) {
+            return;
+        }
+        if (!pager.append(List.of(department))) {
+            reload();
+            return;
+        }
+        int index = pager.size() - 1;
+        fireIntervalAdded(this, index, index);
+        if (selected == null) {
+            select(department, index);
+        }
+    }
+
+    /** Renames a department in the loaded pages; pages loaded later read the new name. */
+    public void rename(Long departmentId, String name) {
+        DepartmentSummary renamed = new DepartmentSummary(departmentId, name);
+        int index = pager.indexOfLoaded(renamed);
+        if (index >= 0) {
+            pager.set(index, renamed);
+            fireContentsChanged(this, index, index);
+        }
+        if (renamed.equals(selected)) {
+            selected = renamed;
+            fireContentsChanged(this, -1, -1);
+        }
+    }
+
+    /**
+     * Selects the first department whose name starts with {@code prefix}, or with
+     * {@code next} the first one after the current selection, wrapping around.
+     * The lookup runs as a query and the selection changes when it returns.
+     */
+    public void selectByPrefix(String prefix, boolean next) {
+        PageSource requestSource = source;
+        if (requestSource == null) {
+            return;
+        }
+        DepartmentSummary after = next ? selected : null;
+        int requestGeneration = pager.generation();
+        loader.submit("departmentCombo:lookup", () -> {
+            DepartmentSummary found = requestSource.findByPrefix(prefix, after);
+            if (found == null && after != null) {
+                found = requestSource.findByPrefix(prefix, null);
+            }
+            return found != null ? new Match(found, requestSource.indexOf(found)) : null;
+        }, match -> {
+            if (match != null && requestGeneration == pager.generation()) {
+                select(match.department, (int) Math.min(match.index, Integer.MAX_VALUE));
+            }
+        }, onError);
+    }
+
+    /** Selects {@code department}, which is at row {@code index}, or -1 if not known. */
+    void select(DepartmentSummary department, int index) {
+        selectedIndex = index;
+        if (department != selected) {
+            selected = department;
+            fireContentsChanged(this, -1, -1);
+        }
+    }
+
+    /** @return the selected row, or -1 if nothing is selected or its row is not known */
+    public int getSelectedIndex() {
+        return selectedIndex;
+    }
+
+    @Override
+    public void setSelectedItem(Object item) {
+        if (item != LOADING) {
+            select((DepartmentSummary) item, -1);
+        }
+    }
+
+    @Override
+    public Object getSelectedItem() {
+        return selected;
+    }
+
+    @Override
+    public int getSize() {
+        return pager.size();
+    }
+
+    @Override
+    public DepartmentSummary getElementAt(int index) {
+        List<DepartmentSummary> page = pager.getPage(index / PAGE_SIZE);
+        if (page == null) {
+            return LOADING;
+        }
+        int offset = index % PAGE_SIZE;
+        return offset < page.size() ? page.get(offset) : LOADING;
+    }
+
+    private void pageLoaded(int firstRow, int lastRow, List<DepartmentSummary> rows) {
+        if (firstRow <= lastRow) {
+            fireContentsChanged(this, firstRow, lastRow);
+        }
+        if (firstRow == 0 && selectedIndex < 0 && !rows.isEmpty()) {
+            int offset = selected != null ? rows.indexOf(selected) : -1;
+            select(offset >= 0 ? rows.get(offset) : rows.get(0), Math.max(offset, 0));
+        }
+    }
+
+    private static final class Match {
+        final DepartmentSummary department;
+        final long index;
+
+        Match(DepartmentSummary department, long index) {
+            this.department = department;
+            this.index = index;
+        }
+    }
+}
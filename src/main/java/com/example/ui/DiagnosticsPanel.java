@@ -0,0 +1,125 @@
+package com.example.ui;
+
+import com.example.repository.CompanyRepository;
+import com.example.repository.MethodStats;
+import com.example.repository.PoolMetrics;
+import org.hibernate.stat.Statistics;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Live repository figures: latency percentiles, statements and rows per method,
+ * transaction durations, Hibernate statistics and the connection pool. Refreshes
+ * once a second while shown; all figures are in memory, so this costs no queries.
+ */
+public class DiagnosticsPanel extends JPanel {
+    private static final int REFRESH_MILLIS = 1000;
+
+    private final CompanyRepository repository;
+    private final MethodTableModel methods = new MethodTableModel();
+    private final JLabel summary = new JLabel();
+    private final Timer refreshTimer;
+
+    public DiagnosticsPanel(CompanyRepository repository) {
+        super(new BorderLayout(0, 5));
+        this.repository = repository;
+        setBackground(Color.WHITE);
+        setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(new Color(220, 220, 220), 1, true),
+                BorderFactory.createEmptyBorder(10, 10, 10, 10)
+        ));
+
+        JTable table = new JTable(methods);
+        table.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        table.setFillsViewportHeight(true);
+        table.getColumnModel().getColumn(0).setPreferredWidth(180);
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(0, 140));
+        add(scrollPane, BorderLayout.CENTER);
+
+        summary.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        add(summary, BorderLayout.SOUTH);
+
+        refreshTimer = new Timer(REFRESH_MILLIS, e -> refresh());
+    }
+
+    @Override
+    public void setVisible(boolean visible) {
+        super.setVisible(visible);
+        if (visible) {
+            refresh();
+            refreshTimer.start();
+        } else {
+            refreshTimer.stop();
+        }
+    }
+
+    private void refresh() {
+        List<MethodStats> rows = new ArrayList<>(repository.getMetrics().getMethods());
+        rows.add(repository.getMetrics().getTransactions());
+        methods.setRows(rows);
+
+        Statistics statistics = repository.getStatistics();
+        PoolMetrics pool = repository.getPoolMetrics();
+        summary.setText(String.format(
+                "<html>Queries: %d (slowest %d ms) &nbsp; Statements: %d &nbsp; Entities loaded: %d<br>"
+                        + "L2 cache hit/miss: %d/%d &nbsp; Query cache hit/miss: %d/%d<br>%s</html>",
+                statistics.getQueryExecutionCount(), statistics.getQueryExecutionMaxTime(),
+                statistics.getPrepareStatementCount(), statistics.getEntityLoadCount(),
+                statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(),
+                statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                pool != null ? pool.toString() : "Connection pool: not instrumented"));
+    }
+
+    private static final class MethodTableModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"Method", "Calls", "p50 ms", "p99 ms", "Max ms", "Stmts", "Rows", "Errors"};
+        private List<MethodStats> rows = new ArrayList<>();
+
+        void setRows(List<MethodStats> rows) {
+            this.rows = rows;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            MethodStats stats = rows.get(rowIndex);
+            switch (columnIndex) {
+                case 0:
+                    return stats.getName();
+                case 1:
+                    return stats.getCalls();
+                case 2:
+                    return String.format("%.2f", stats.getP50Millis());
+                case 3:
+                    return String.format("%.2f", stats.getP99Millis());
+                case 4:
+                    return String.format("%.2f", stats.getMaxMillis());
+                case 5:
+                    return stats.getStatements();
+                case 6:
+                    return stats.getRows();
+                default:
+                    return stats.getErrors();
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.ui;
+
+import com.example.dto.EmployeeSummary;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Recently viewed employee pages, per department, so switching back to a
+ * department or refreshing it does not query again.
+ * <p>
+ * Departments are evicted least recently used first once there are more than
+ * {@code maxDepartments} of them or their rows are estimated to take more than
+ * {@code maxBytes}. An entry is dropped when a change to its department is
+ * announced, and is not trusted after {@code maxAgeMillis}, which bounds how long
+ * changes made by other clients can go unseen. Pages are loaded on the loader's
+ * worker threads, so every method is synchronized.
+ */
+public class EmployeePageCache {
+    // Per row: the summary, its boxed ids and the name's String and array headers.
+    private static final long ROW_OVERHEAD_BYTES = 96;
+
+    private final int maxDepartments;
+    private final long maxBytes;
+    private final long maxAgeMillis;
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    // Bumped by every invalidation; a page loaded across one is not stored.
+    private long epoch;
+
+    public EmployeePageCache(int maxDepartments, long maxBytes, long maxAgeMillis) {
+        this.maxDepartments = maxDepartments;
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Returns the page of {@code departmentId} that starts after {@code afterId},
+     * from the cache or else from {@code load}, which is then cached.
+     */
+    public List<EmployeeSummary> page(Long departmentId, long afterId, int limit, Supplier<List<EmployeeSummary>> load) {
+        long loadEpoch;
+        synchronized (this) {
+            Entry entry = entries.get(departmentId);
+            if (entry != null && System.currentTimeMillis() - entry.created > maxAgeMillis) {
+                remove(departmentId);
+                entry = null;
+            }
+            List<EmployeeSummary> cached = entry != null && entry.limit == limit ? entry.pages.get(afterId) : null;
+            if (cached != null) {
+                return cached;
+            }
+            loadEpoch = epoch;
+        }
+        List<EmployeeSummary> rows = Collections.unmodifiableList(new ArrayList<>(load.get()));
+        put(departmentId, afterId, limit, rows, loadEpoch);
+        return rows;
+    }
+
+    /** Forgets {@code departmentId}, and any of its pages still being loaded. */
+    public synchronized void invalidate(Long departmentId) {
+        epoch++;
+        remove(departmentId);
+    }
+
+    public synchronized void clear() {
+        epoch++;
+        entries.clear();
+        bytes = 0;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long estimatedBytes() {
+        return bytes;
+    }
+
+    private synchronized void put(Long departmentId, long afterId, int limit, List<EmployeeSummary> rows, long loadEpoch) {
+        if (loadEpoch != epoch) {
+            return;
+        }
+        Entry entry = entries.get(departmentId);
+        if (entry == null || entry.limit != limit) {
+            remove(departmentId);
+            entry = new Entry(limit);
+            entries.put(departmentId, entry);
+        }
+        long pageBytes = estimate(rows);
+        List<EmployeeSummary> replaced = entry.pages.put(afterId, rows);
+        if (replaced != null) {
+            pageBytes -= estimate(replaced);
+        }
+        entry.bytes += pageBytes;
+        bytes += pageBytes;
+
+        Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxDepartments || bytes > maxBytes) && eldest.hasNext()) {
+            Map.Entry<Long, Entry> evicted = eldest.next();
+            bytes -= evicted.getValue().bytes;
+            eldest.remove();
+        }
+    }
+
+    private void remove(Long departmentId) {
+        Entry removed = entries.remove(departmentId);
+        if (removed != null) {
+            bytes -= removed.bytes;
+        }
+    }
+
+    /** Rough heap size of {@code rows}; department names are shared, so they are not counted. */
+    static long estimate(List<EmployeeSummary> rows) {
+        long total = 16 + 4L * rows.size();
+        for (EmployeeSummary row : rows) {
+            total += ROW_OVERHEAD_BYTES + 2L * row.getName().length();
+        }
+        return total;
+    }
+
+    private static final class Entry {
+        final int limit;
+        final long created = System.currentTimeMillis();
+        final Map<Long, List<EmployeeSummary>> pages = new HashMap<>();
+        long bytes;
+
+        Entry(int limit) {
+            this.limit = limit;
+        }
+    }
+}
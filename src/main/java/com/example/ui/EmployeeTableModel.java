@@ -0,0 +1,188 @@
+package com.example.ui;
+
+import com.example.dto.EmployeeSummary;
+import com.example.repository.CompanyRepository;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Table model that pages employees in from the database as rows become visible.
+ * <p>
+ * Paging is done by a {@link KeysetPager}: only the most recently used
+ * {@link #MAX_CACHED_PAGES} pages are kept, so memory stays bounded however many
+ * employees match. Rows that are not loaded yet render as a placeholder until
+ * their page arrives.
+ */
+public class EmployeeTableModel extends AbstractTableModel {
+    static final int PAGE_SIZE = 100;
+    static final int MAX_CACHED_PAGES = 20;
+    private static final String[] COLUMNS = {"ID", "Name", "Department"};
+    private static final String LOADING = "Loading\u2026";
+
+    /** Where the rows come from: one department, or a name search. */
+    public interface PageSource extends KeysetPager.PageSource<EmployeeSummary> {
+        static PageSource department(CompanyRepository repository, Long departmentId) {
+            return new PageSource() {
+                @Override
+                public long count() {
+                    return repository.countEmployeesInDepartment(departmentId);
+                }
+
+                @Override
+                public List<EmployeeSummary> page(long afterId, int limit) {
+                    return repository.getEmployeesPage(departmentId, afterId, limit);
+                }
+
+                @Override
+                public Long keyAfter(long afterId, int offset) {
+                    return repository.findEmployeeKeyAfter(departmentId, afterId, offset);
+                }
+            };
+        }
+
+        /** Like {@link #department}, serving pages from {@code cache} when it has them. */
+        static PageSource department(CompanyRepository repository, Long departmentId, EmployeePageCache cache) {
+            PageSource database = department(repository, departmentId);
+            return new PageSource() {
+                @Override
+                public long count() {
+                    return database.count();
+                }
+
+                @Override
+                public List<EmployeeSummary> page(long afterId, int limit) {
+                    return cache.page(departmentId, afterId, limit, () -> database.page(afterId, limit));
+                }
+
+                @Override
+                public Long keyAfter(long afterId, int offset) {
+                    return database.keyAfter(afterId, offset);
+                }
+            };
+        }
+
+        /** Rows already in memory, sorted by id; used to narrow a previous result locally. */
+        static PageSource of(List<EmployeeSummary> rows) {
+            return new RowList(rows);
+        }
+
+        static PageSource nameSearch(CompanyRepository repository, String namePattern) {
+            return new PageSource() {
+                @Override
+                public long count() {
+                    return repository.countEmployeesByName(namePattern);
+                }
+
+                @Override
+                public List<EmployeeSummary> page(long afterId, int limit) {
+                    return repository.findEmployeesByNamePage(namePattern, afterId, limit);
+                }
+
+                @Override
+                public Long keyAfter(long afterId, int offset) {
+                    return repository.findEmployeeKeyAfterByName(namePattern, afterId, offset);
+                }
+            };
+        }
+    }
+
+    private static final class RowList extends KeysetPager.RowList<EmployeeSummary> implements PageSource {
+        RowList(List<EmployeeSummary> rows) {
+            super(rows, EmployeeSummary::getId);
+        }
+    }
+
+    private final KeysetPager<EmployeeSummary> pager;
+
+    public EmployeeTableModel(AsyncDataLoader loader, Consumer<Throwable> onError) {
+        pager = new KeysetPager<>(loader, "employeeTable:", PAGE_SIZE, MAX_CACHED_PAGES, EmployeeSummary::getId,
+                (firstRow, lastRow, rows) -> {
+                    if (firstRow <= lastRow) {
+                        fireTableRowsUpdated(firstRow, lastRow);
+                    }
+                }, onError);
+    }
+
+    /**
+     * Switches to a new row source. Results still in flight for the previous
+     * source are ignored. {@code onCount} receives the total once it is known.
+     */
+    public void setSource(PageSource source, Consumer<Long> onCount) {
+        pager.setSource(source);
+        fireTableDataChanged();
+        pager.loadCount(count -> {
+            fireTableDataChanged();
+            onCount.accept(count);
+        });
+    }
+
+    /**
+     * Adds newly committed rows of the current source without reloading. Rows
+     * already loaded stay as they are, so this only works when every new id is
+     * above the highest loaded one; the new rows then belong at the end. Pages not
+     * loaded yet will include them when they are fetched.
+     *
+     * @param rows new rows in id order
+     * @return {@code false} if the rows could not be placed, and the source should be set again
+     */
+    public boolean appendRows(List<EmployeeSummary> rows) {
+        int firstRow = pager.size();
+        if (!pager.append(rows)) {
+            return false;
+        }
+        if (!rows.isEmpty()) {
+            fireTableRowsInserted(firstRow, pager.size() - 1);
+        }
+        return true;
+    }
+
+    /**
+     * @return every row of the current source if all of them are loaded, otherwise
+     * {@code null}
+     */
+    public List<EmployeeSummary> getCompleteRows() {
+        List<EmployeeSummary> first = pager.getLoadedPage(0);
+        if (pager.size() <= PAGE_SIZE && first != null && first.size() == pager.size()) {
+            return first;
+        }
+        return null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return pager.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        List<EmployeeSummary> page = pager.getPage(rowIndex / PAGE_SIZE);
+        if (page == null) {
+            return columnIndex == 1 ? LOADING : "";
+        }
+        int offset = rowIndex % PAGE_SIZE;
+        if (offset >= page.size()) {
+            return "";
+        }
+        EmployeeSummary employee = page.get(offset);
+        switch (columnIndex) {
+            case 0:
+                return employee.getId();
+            case 1:
+                return employee.getName();
+            default:
+                return employee.getDepartmentName();
+        }
+    }
+}
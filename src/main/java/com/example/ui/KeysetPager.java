@@ -0,0 +1,302 @@
+package com.example.ui;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Pages rows in from a {@link PageSource} as they are asked for, for the list
+ * and table models.
+ * <p>
+ * Pages are fetched with keyset pagination and only the most recently used
+ * {@code maxCachedPages} pages are kept, so memory stays bounded however many
+ * rows there are. A page further on than any known start key is reached by
+ * seeking over ids only. Results that arrive after the source was replaced are
+ * ignored. Everything but the loading runs on the EDT.
+ *
+ * @param <T> row type, ordered by a {@code long} id
+ */
+class KeysetPager<T> {
+
+    /** Where the rows come from. Implementations are called off the EDT. */
+    interface PageSource<T> {
+        long count();
+
+        List<T> page(long afterId, int limit);
+
+        /** Id of the row {@code offset} positions after {@code afterId}, or {@code null}. */
+        Long keyAfter(long afterId, int offset);
+
+        /**
+         * Called by {@link KeysetPager#append} before the rows are placed, so later page
+         * reads include them. A database source already has them.
+         */
+        default void added(T row) {
+        }
+    }
+
+    /** Rows already in memory, sorted by id. The list is copied; {@link #added} inserts in id order. */
+    static class RowList<T> implements PageSource<T> {
+        private final List<T> rows;
+        private final ToLongFunction<T> idOf;
+
+        RowList(List<T> rows, ToLongFunction<T> idOf) {
+            this.rows = new ArrayList<>(rows);
+            this.idOf = idOf;
+        }
+
+        /** The rows, in id order. */
+        List<T> rows() {
+            return rows;
+        }
+
+        @Override
+        public long count() {
+            return rows.size();
+        }
+
+        @Override
+        public List<T> page(long afterId, int limit) {
+            int from = indexAfter(afterId);
+            return new ArrayList<>(rows.subList(from, Math.min(from + limit, rows.size())));
+        }
+
+        @Override
+        public Long keyAfter(long afterId, int offset) {
+            int index = indexAfter(afterId) + offset;
+            return index < rows.size() ? idOf.applyAsLong(rows.get(index)) : null;
+        }
+
+        @Override
+        public void added(T row) {
+            long id = idOf.applyAsLong(row);
+            int index = indexAfter(id - 1);
+            if (index == rows.size() || idOf.applyAsLong(rows.get(index)) != id) {
+                rows.add(index, row);
+            }
+        }
+
+        private int indexAfter(long afterId) {
+            int index = 0;
+            while (index < rows.size() && idOf.applyAsLong(rows.get(index)) <= afterId) {
+                index++;
+            }
+            return index;
+        }
+    }
+
+    /** Told on the EDT when a page has arrived. */
+    interface PageListener<T> {
+        /**
+         * @param firstRow index of {@code rows.get(0)}
+         * @param lastRow  last index of the page within the current size, below
+         *                 {@code firstRow} if the page is empty
+         */
+        void pageLoaded(int firstRow, int lastRow, List<T> rows);
+    }
+
+    private final AsyncDataLoader loader;
+    private final String keyPrefix;
+    private final int pageSize;
+    private final ToLongFunction<T> idOf;
+    private final PageListener<T> listener;
+    private final Consumer<Throwable> onError;
+    private PageSource<T> source;
+    private int generation;
+    private int size;
+    private boolean countLoaded;
+    // Access-ordered, so the eldest entry is the least recently viewed page.
+    private final Map<Integer, List<T>> pages;
+    // Page number -> id the page starts after. Only ids are kept, never rows.
+    private final TreeMap<Integer, Long> pageStartKeys = new TreeMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+
+    /**
+     * @param keyPrefix prefix of the {@link AsyncDataLoader} keys; requests under it
+     *                  are cancelled when the source changes
+     */
+    KeysetPager(AsyncDataLoader loader, String keyPrefix, int pageSize, int maxCachedPages,
+                ToLongFunction<T> idOf, PageListener<T> listener, Consumer<Throwable> onError) {
+        this.loader = loader;
+        this.keyPrefix = keyPrefix;
+        this.pageSize = pageSize;
+        this.idOf = idOf;
+        this.listener = listener;
+        this.onError = onError;
+        this.pages = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > maxCachedPages;
+            }
+        };
+    }
+
+    /**
+     * Switches to a new source and forgets every row; the size is 0 until
+     * {@link #loadCount} has loaded it.
+     */
+    void setSource(PageSource<T> source) {
+        ++generation;
+        this.source = source;
+        size = 0;
+        countLoaded = false;
+        pages.clear();
+        pageStartKeys.clear();
+        pageStartKeys.put(0, 0L);
+        loading.clear();
+        loader.cancel(keyPrefix);
+    }
+
+    /** Counts the rows of the source. {@code onCount} runs once {@link #size} has been updated. */
+    void loadCount(Consumer<Long> onCount) {
+        int requestGeneration = generation;
+        loader.submit(keyPrefix + "count", source::count, count -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            size = (int) Math.min(count, Integer.MAX_VALUE);
+            countLoaded = true;
+            onCount.accept(count);
+        }, onError);
+    }
+
+    /** Incremented by every {@link #setSource}; lets callers drop their own stale results. */
+    int generation() {
+        return generation;
+    }
+
+    /** @return the row count, 0 until it is loaded */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return page {@code pageNumber} if it is loaded; otherwise {@code null},
+     * and the page is requested
+     */
+    List<T> getPage(int pageNumber) {
+        List<T> page = pages.get(pageNumber);
+        if (page == null) {
+            requestPage(pageNumber);
+        }
+        return page;
+    }
+
+    /** @return page {@code pageNumber} if it is loaded, without requesting it */
+    List<T> getLoadedPage(int pageNumber) {
+        return pages.get(pageNumber);
+    }
+
+    /** @return the index of a loaded row equal to {@code row}, or -1 */
+    int indexOfLoaded(T row) {
+        for (Map.Entry<Integer, List<T>> page : pages.entrySet()) {
+            int offset = page.getValue().indexOf(row);
+            if (offset >= 0) {
+                return page.getKey() * pageSize + offset;
+            }
+        }
+        return -1;
+    }
+
+    /** Replaces the loaded row at {@code index}, e.g. with a renamed copy. */
+    void set(int index, T row) {
+        int pageNumber = index / pageSize;
+        List<T> updated = new ArrayList<>(pages.get(pageNumber));
+        updated.set(index % pageSize, row);
+        pages.put(pageNumber, updated);
+    }
+
+    /**
+     * Adds newly committed rows to the end without reloading. Rows already
+     * loaded stay as they are, so this only works when every new id is above the
+     * highest loaded one. Pages not loaded yet will include them when fetched.
+     *
+     * @param rows new rows in id order
+     * @return {@code false} if the rows could not be placed, and the source should be set again
+     */
+    boolean append(List<T> rows) {
+        rows.forEach(source::added);
+        if (rows.isEmpty()) {
+            return true;
+        }
+        if (!countLoaded || !loading.isEmpty()) {
+            // A count or page still in flight may or may not include them.
+            return false;
+        }
+        long firstNewId = idOf.applyAsLong(rows.get(0));
+        for (List<T> page : pages.values()) {
+            if (!page.isEmpty() && idOf.applyAsLong(page.get(page.size() - 1)) >= firstNewId) {
+                return false;
+            }
+        }
+        int lastPageNumber = size / pageSize;
+        List<T> lastPage = pages.get(lastPageNumber);
+        if (lastPage != null && lastPage.size() != size - lastPageNumber * pageSize) {
+            return false;
+        }
+        if (lastPage != null) {
+            int fits = Math.min(pageSize - lastPage.size(), rows.size());
+            List<T> extended = new ArrayList<>(lastPage);
+            extended.addAll(rows.subList(0, fits));
+            pages.put(lastPageNumber, extended);
+            if (extended.size() == pageSize) {
+                pageStartKeys.put(lastPageNumber + 1, idOf.applyAsLong(extended.get(pageSize - 1)));
+            }
+        }
+        size += rows.size();
+        return true;
+    }
+
+    private void requestPage(int pageNumber) {
+        if (!loading.add(pageNumber)) {
+            return;
+        }
+        int requestGeneration = generation;
+        PageSource<T> requestSource = source;
+        Map.Entry<Integer, Long> known = pageStartKeys.floorEntry(pageNumber);
+        int knownPage = known.getKey();
+        long knownKey = known.getValue();
+
+        loader.submit(keyPrefix + "page:" + pageNumber, () -> {
+            long afterId = knownKey;
+            if (knownPage < pageNumber) {
+                // Seek over the skipped pages by id only, without loading their rows.
+                Long key = requestSource.keyAfter(knownKey, (pageNumber - knownPage) * pageSize - 1);
+                if (key == null) {
+                    return new Page<T>(pageNumber, knownKey, Collections.emptyList());
+                }
+                afterId = key;
+            }
+            return new Page<>(pageNumber, afterId, requestSource.page(afterId, pageSize));
+        }, page -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            loading.remove(page.number);
+            pages.put(page.number, page.rows);
+            pageStartKeys.put(page.number, page.afterId);
+            if (page.rows.size() == pageSize) {
+                pageStartKeys.put(page.number + 1, idOf.applyAsLong(page.rows.get(pageSize - 1)));
+            }
+            int firstRow = page.number * pageSize;
+            listener.pageLoaded(firstRow, Math.min(firstRow + pageSize, size) - 1, page.rows);
+        }, error -> {
+            if (requestGeneration == generation) {
+                loading.remove(pageNumber);
+            }
+            onError.accept(error);
+        });
+    }
+
+    private static final class Page<T> {
+        final int number;
+        final long afterId;
+        final List<T> rows;
+
+        Page(int number, long afterId, List<T> rows) {
+            this.number = number;
+            this.afterId = afterId;
+            this.rows = rows;
+        }
+    }
+}
@@ -1,26 +1,64 @@
 package com.example.ui;
 
+import com.example.dto.DepartmentSummary;
+import com.example.dto.EmployeeSummary;
 import com.example.entity.Department;
-import com.example.entity.Employee;
+import com.example.event.CompanyEvent;
+import com.example.event.DepartmentDeleted;
+import com.example.event.DepartmentsAdded;
+import com.example.event.DepartmentsRenamed;
+import com.example.event.EmployeesAdded;
+import com.example.event.EmployeesMoved;
 import com.example.repository.CompanyRepository;
+import com.example.repository.EmployeeExporter;
+import com.example.search.TrigramIndex;
 
 import javax.swing.*;
 import javax.swing.border.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.awt.event.*;
+import java.nio.file.Path;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class MainFrame extends JFrame {
-    private final CompanyRepository repository;
-    private JComboBox<Department> departmentComboBox;
+    // Typing pause after which a search-as-you-type query is sent.
+    private static final int SEARCH_DELAY_MILLIS = 300;
+    // Recently viewed departments' employee pages; other clients' changes show after at most a minute.
+    private static final int CACHED_DEPARTMENTS = 32;
+    private static final long CACHED_BYTES = 8L * 1024 * 1024;
+    private static final long CACHE_MAX_AGE_MILLIS = 60_000;
+
+    // Set on the EDT once the background bootstrap has finished.
+    private CompanyRepository repository;
+    private final AsyncDataLoader loader;
+    private final DepartmentComboBoxModel departmentModel;
+    private final EmployeePageCache employeePages = new EmployeePageCache(CACHED_DEPARTMENTS, CACHED_BYTES, CACHE_MAX_AGE_MILLIS);
+    private DepartmentComboBox departmentComboBox;
     private JTextField deptNameField;
     private JTextField empNameField;
     private JTextField searchDeptField;
     private JTextField searchEmpField;
-    private JTextArea empListArea;
+    private JTable empTable;
+    private EmployeeTableModel empTableModel;
     private JLabel employeeCountLabel;
     private JPanel notificationPanel;
     private Timer notificationTimer;
+    private JProgressBar busyIndicator;
+    private DiagnosticsPanel diagnosticsPanel;
+    private JToggleButton diagnosticsButton;
+    private JPanel centerPanel;
+    private JPanel contentPanel;
+    private JMenuItem exportMenuItem;
+    // Last term sent to the database and its full result, for narrowing locally.
+    private String lastDepartmentTerm;
+    private List<Department> lastDepartmentResult;
+    private String lastEmployeeTerm;
 
     // Custom colors
     private final Color PRIMARY_COLOR = new Color(63, 81, 181);
@@ -31,8 +69,42 @@ public class MainFrame extends JFrame {
     private final Color ERROR_COLOR = new Color(244, 67, 54);
 
     public MainFrame() {
-        repository = new CompanyRepository();
+        loader = new AsyncDataLoader(4, 32, this::setBusy);
+        departmentModel = new DepartmentComboBoxModel(loader, this::showError);
         initializeUI();
+        bootstrap();
+    }
+
+    /**
+     * Builds the repository (EntityManagerFactory, connection pool, migrations) off
+     * the EDT so the window appears immediately; controls stay disabled until then.
+     */
+    private void bootstrap() {
+        setControlsEnabled(false);
+        loader.submit("bootstrap", CompanyRepository::new, ready -> {
+            repository = ready;
+            repository.getEvents().addListener(event -> SwingUtilities.invokeLater(() -> applyChange(event)));
+            diagnosticsPanel = new DiagnosticsPanel(repository);
+            diagnosticsPanel.setVisible(false);
+            centerPanel.add(diagnosticsPanel, BorderLayout.SOUTH);
+            setControlsEnabled(true);
+            updateDepartmentComboBox();
+        }, error -> showNotification("Could not connect to the database: " + error.getMessage(), false));
+    }
+
+    private void setControlsEnabled(boolean enabled) {
+        setEnabledRecursively(contentPanel, enabled);
+        diagnosticsButton.setEnabled(enabled);
+        exportMenuItem.setEnabled(enabled);
+    }
+
+    private static void setEnabledRecursively(Component component, boolean enabled) {
+        component.setEnabled(enabled);
+        if (component instanceof Container) {
+            for (Component child : ((Container) component).getComponents()) {
+                setEnabledRecursively(child, enabled);
+            }
+        }
     }
 
     private void initializeUI() {
@@ -40,6 +112,15 @@ public class MainFrame extends JFrame {
         setSize(800, 600);
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                loader.shutdown();
+                if (repository != null) {
+                    repository.close();
+                }
+            }
+        });
 
         // Set custom look and feel properties
         try {
@@ -61,7 +142,7 @@ public class MainFrame extends JFrame {
         mainPanel.add(headerPanel, BorderLayout.NORTH);
 
         // Content panel with department and employee sections
-        JPanel contentPanel = new JPanel(new GridLayout(1, 2, 15, 0));
+        contentPanel = new JPanel(new GridLayout(1, 2, 15, 0));
         contentPanel.setBackground(LIGHT_BG_COLOR);
 
         // Department section
@@ -72,7 +153,12 @@ public class MainFrame extends JFrame {
         JPanel employeePanel = createEmployeePanel();
         contentPanel.add(employeePanel);
 
-        mainPanel.add(contentPanel, BorderLayout.CENTER);
+        // Diagnostics go below the content once the repository is ready
+        centerPanel = new JPanel(new BorderLayout(0, 10));
+        centerPanel.setBackground(LIGHT_BG_COLOR);
+        centerPanel.add(contentPanel, BorderLayout.CENTER);
+
+        mainPanel.add(centerPanel, BorderLayout.CENTER);
 
         // Notification panel (initially hidden)
         notificationPanel = new JPanel();
@@ -83,6 +169,17 @@ public class MainFrame extends JFrame {
 
         // Add main panel to frame
         setContentPane(mainPanel);
+        setJMenuBar(createMenuBar());
+    }
+
+    private JMenuBar createMenuBar() {
+        JMenuBar menuBar = new JMenuBar();
+        JMenu fileMenu = new JMenu("File");
+        exportMenuItem = new JMenuItem("Export Employees\u2026");
+        exportMenuItem.addActionListener(e -> exportEmployees());
+        fileMenu.add(exportMenuItem);
+        menuBar.add(fileMenu);
+        return menuBar;
     }
 
     private JPanel createHeaderPanel() {
@@ -95,6 +192,23 @@ public class MainFrame extends JFrame {
         titleLabel.setForeground(LIGHT_TEXT_COLOR);
         headerPanel.add(titleLabel, BorderLayout.WEST);
 
+        busyIndicator = new JProgressBar();
+        busyIndicator.setIndeterminate(true);
+        busyIndicator.setPreferredSize(new Dimension(120, 12));
+        busyIndicator.setVisible(false);
+        diagnosticsButton = new JToggleButton("Diagnostics");
+        diagnosticsButton.setFocusPainted(false);
+        diagnosticsButton.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        diagnosticsButton.addActionListener(e -> {
+            diagnosticsPanel.setVisible(diagnosticsButton.isSelected());
+            revalidate();
+        });
+        JPanel busyPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
+        busyPanel.setOpaque(false);
+        busyPanel.add(busyIndicator);
+        busyPanel.add(diagnosticsButton);
+        headerPanel.add(busyPanel, BorderLayout.EAST);
+
         return headerPanel;
     }
 
@@ -165,6 +279,7 @@ public class MainFrame extends JFrame {
 
         JButton searchDeptButton = createStyledButton("Search");
         searchDeptButton.addActionListener(e -> searchDepartments());
+        searchAsYouType(searchDeptField, () -> searchDepartments(false));
 
         searchDeptPanel.add(searchDeptInputPanel, BorderLayout.CENTER);
         searchDeptPanel.add(searchDeptButton, BorderLayout.EAST);
@@ -181,9 +296,12 @@ public class MainFrame extends JFrame {
         ));
 
         JLabel selectDeptLabel = new JLabel("Select Department:");
-        departmentComboBox = new JComboBox<>();
+        departmentComboBox = new DepartmentComboBox(departmentModel);
         departmentComboBox.setMaximumSize(new Dimension(Integer.MAX_VALUE, 30));
-        departmentComboBox.addActionListener(e -> updateEmployeeCount());
+        departmentComboBox.addActionListener(e -> {
+            updateEmployeeCount();
+            prefetchNeighbours();
+        });
 
         JPanel countPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         countPanel.setBackground(Color.WHITE);
@@ -207,9 +325,6 @@ public class MainFrame extends JFrame {
 
         panel.add(formPanel, BorderLayout.CENTER);
 
-        // Initialize department combo box
-        updateDepartmentComboBox();
-
         return panel;
     }
 
@@ -280,6 +395,7 @@ public class MainFrame extends JFrame {
 
         JButton searchEmpButton = createStyledButton("Search");
         searchEmpButton.addActionListener(e -> searchEmployees());
+        searchAsYouType(searchEmpField, () -> searchEmployees(false));
 
         searchEmpPanel.add(searchEmpInputPanel, BorderLayout.CENTER);
         searchEmpPanel.add(searchEmpButton, BorderLayout.EAST);
@@ -295,11 +411,14 @@ public class MainFrame extends JFrame {
                 new Font("Segoe UI", Font.BOLD, 12)
         ));
 
-        empListArea = new JTextArea(10, 20);
-        empListArea.setEditable(false);
-        empListArea.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-        empListArea.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
-        JScrollPane scrollPane = new JScrollPane(empListArea);
+        empTableModel = new EmployeeTableModel(loader, this::showError);
+        empTable = new JTable(empTableModel);
+        empTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        empTable.setFillsViewportHeight(true);
+        empTable.getColumnModel().getColumn(0).setPreferredWidth(50);
+        empTable.getColumnModel().getColumn(1).setPreferredWidth(180);
+        empTable.getColumnModel().getColumn(2).setPreferredWidth(120);
+        JScrollPane scrollPane = new JScrollPane(empTable);
         scrollPane.setBorder(BorderFactory.createLineBorder(new Color(220, 220, 220), 1));
 
         JButton refreshEmpButton = createStyledButton("Refresh List");
@@ -349,6 +468,46 @@ public class MainFrame extends JFrame {
         return button;
     }
 
+    /** Runs {@code search} once the user stops typing in {@code field}. */
+    private void searchAsYouType(JTextField field, Runnable search) {
+        Timer debounce = new Timer(SEARCH_DELAY_MILLIS, e -> search.run());
+        debounce.setRepeats(false);
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Attribute changes only; the text is the same.
+            }
+        });
+    }
+
+    /**
+     * A result for {@code previous} can be narrowed to {@code term} in memory when
+     * {@code term} extends it and neither uses LIKE wildcards.
+     */
+    private static boolean narrows(String previous, String term) {
+        return previous != null
+                && term.indexOf('%') < 0 && term.indexOf('_') < 0
+                && previous.indexOf('%') < 0 && previous.indexOf('_') < 0
+                && TrigramIndex.fold(term).contains(TrigramIndex.fold(previous));
+    }
+
+    private static <T> List<T> filterByName(List<T> rows, Function<T, String> name, String term) {
+        String folded = TrigramIndex.fold(term);
+        return rows.stream()
+                .filter(row -> TrigramIndex.fold(name.apply(row)).contains(folded))
+                .collect(Collectors.toList());
+    }
+
     private void showNotification(String message, boolean isSuccess) {
         // Cancel existing timer if running
         if (notificationTimer != null && notificationTimer.isRunning()) {
@@ -385,14 +544,29 @@ public class MainFrame extends JFrame {
         repaint();
     }
 
+    private void setBusy(boolean busy) {
+        busyIndicator.setVisible(busy);
+        setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+
+    private void showError(Throwable error) {
+        String message = error.getMessage() != null ? error.getMessage() : error.toString();
+        showNotification("Error: " + message, false);
+    }
+
     private void addDepartment() {
         String deptName = deptNameField.getText().trim();
         if (!deptName.isEmpty()) {
             Department department = new Department(deptName);
-            repository.addDepartment(department);
-            deptNameField.setText("");
-            updateDepartmentComboBox();
-            showNotification("Department added successfully!", true);
+            // execute, not submit: a second click must not supersede the first insert.
+            loader.execute(() -> {
+                repository.addDepartment(department);
+                return department;
+            }, added -> {
+                // The combo box picks the department up from the repository's DepartmentsAdded event.
+                deptNameField.setText("");
+                showNotification("Department added successfully!", true);
+            }, this::showError);
         } else {
             showNotification("Please enter a department name.", false);
         }
@@ -400,85 +574,211 @@ public class MainFrame extends JFrame {
 
     private void addEmployee() {
         String empName = empNameField.getText().trim();
-        Department selectedDept = (Department) departmentComboBox.getSelectedItem();
+        DepartmentSummary selectedDept = (DepartmentSummary) departmentComboBox.getSelectedItem();
         if (!empName.isEmpty() && selectedDept != null) {
-            Employee employee = new Employee(empName, selectedDept);
-            repository.addEmployee(employee);
-            empNameField.setText("");
-            refreshEmployeeList();
-            updateEmployeeCount();
-            showNotification("Employee added successfully!", true);
+            Long deptId = selectedDept.getId();
+            loader.execute(() -> repository.addEmployee(empName, deptId), added -> {
+                empNameField.setText("");
+                // The department's list and count follow the EmployeesAdded event; a search result is left for it.
+                if (lastEmployeeTerm != null) {
+                    refreshEmployeeList();
+                }
+                showNotification("Employee added successfully!", true);
+            }, this::showError);
         } else {
             showNotification("Please enter employee name and select a department.", false);
         }
     }
 
     private void searchDepartments() {
+        searchDepartments(true);
+    }
+
+    /** @param explicit {@code true} for the Search button, {@code false} while typing */
+    private void searchDepartments(boolean explicit) {
         String searchText = searchDeptField.getText().trim();
         if (!searchText.isEmpty()) {
-            List<Department> departments = repository.findDepartmentsByName(searchText);
-            departmentComboBox.removeAllItems();
-            for (Department dept : departments) {
-                departmentComboBox.addItem(dept);
+            if (!explicit && narrows(lastDepartmentTerm, searchText)) {
+                setDepartments(filterByName(lastDepartmentResult, Department::getName, searchText));
+                return;
             }
-            showNotification("Found " + departments.size() + " departments.", true);
+            loader.submit("departments", () -> repository.findDepartmentsByName(searchText), departments -> {
+                lastDepartmentTerm = searchText;
+                lastDepartmentResult = departments;
+                setDepartments(departments);
+                if (explicit) {
+                    showNotification("Found " + departments.size() + " departments.", true);
+                }
+            }, this::showError);
         } else {
             updateDepartmentComboBox();
-            showNotification("Please enter a search term.", false);
+            if (explicit) {
+                showNotification("Please enter a search term.", false);
+            }
         }
     }
 
     private void searchEmployees() {
+        searchEmployees(true);
+    }
+
+    /** @param explicit {@code true} for the Search button, {@code false} while typing */
+    private void searchEmployees(boolean explicit) {
         String searchText = searchEmpField.getText().trim();
         if (!searchText.isEmpty()) {
-            List<Employee> employees = repository.findEmployeesByName(searchText);
-            empListArea.setText("");
-            for (Employee emp : employees) {
-                empListArea.append(emp.getName() + " (Dept: " + emp.getDepartment().getName() + ")\n");
+            List<EmployeeSummary> previous = empTableModel.getCompleteRows();
+            if (!explicit && previous != null && narrows(lastEmployeeTerm, searchText)) {
+                // Every match of the shorter term is loaded, so the new matches are among them.
+                lastEmployeeTerm = searchText;
+                empTableModel.setSource(EmployeeTableModel.PageSource.of(
+                        filterByName(previous, EmployeeSummary::getName, searchText)), count -> { });
+                return;
             }
-            showNotification("Found " + employees.size() + " employees.", true);
-        } else {
+            lastEmployeeTerm = searchText;
+            empTableModel.setSource(EmployeeTableModel.PageSource.nameSearch(repository, searchText), count -> {
+                if (explicit) {
+                    showNotification("Found " + count + " employees.", true);
+                }
+            });
+        } else if (explicit) {
             showNotification("Please enter a search term.", false);
+        } else {
+            refreshEmployeeList();
         }
     }
 
-    private void updateDepartmentComboBox() {
-        departmentComboBox.removeAllItems();
-        List<Department> departments = repository.getAllDepartments();
-        for (Department dept : departments) {
-            departmentComboBox.addItem(dept);
+    /** Streams the selected department's employees, or everyone if none is selected, to a file. */
+    private void exportEmployees() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export Employees");
+        chooser.addChoosableFileFilter(new FileNameExtensionFilter("CSV (*.csv)", "csv"));
+        chooser.addChoosableFileFilter(new FileNameExtensionFilter("JSON Lines (*.jsonl)", "jsonl"));
+        chooser.setAcceptAllFileFilterUsed(false);
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
         }
-        departmentComboBox.setRenderer(new DefaultListCellRenderer() {
-            @Override
-            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
-                super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
-                if (value instanceof Department) {
-                    setText(((Department) value).getName());
+        Path target = chooser.getSelectedFile().toPath();
+        String extension = ((FileNameExtensionFilter) chooser.getFileFilter()).getExtensions()[0];
+        if (!target.getFileName().toString().contains(".")) {
+            target = target.resolveSibling(target.getFileName() + "." + extension);
+        }
+        DepartmentSummary selectedDept = (DepartmentSummary) departmentComboBox.getSelectedItem();
+        Long deptId = selectedDept != null ? selectedDept.getId() : null;
+        Path file = target;
+        loader.submit("export", () -> new EmployeeExporter(repository)
+                        .export(deptId, EmployeeExporter.Format.forFile(file), file, null),
+                rows -> showNotification("Exported " + rows + " employees to " + file.getFileName() + ".", true),
+                this::showError);
+    }
+
+    private void updateDepartmentComboBox() {
+        // Pages come in as the list scrolls; the combo box's action listener recounts if the selection changed.
+        departmentModel.setSource(DepartmentComboBoxModel.PageSource.all(repository));
+    }
+
+    private void setDepartments(List<Department> departments) {
+        departmentModel.setSource(DepartmentComboBoxModel.PageSource.of(departments.stream()
+                .map(department -> new DepartmentSummary(department.getId(), department.getName()))
+                .sorted(Comparator.comparing(DepartmentSummary::getId))
+                .collect(Collectors.toList())));
+    }
+
+    /**
+     * Applies a committed change to the views in place, without querying again.
+     * Runs on the EDT.
+     */
+    private void applyChange(CompanyEvent event) {
+        DepartmentSummary selectedDept = (DepartmentSummary) departmentComboBox.getSelectedItem();
+        Long selectedId = selectedDept != null ? selectedDept.getId() : null;
+        if (event instanceof DepartmentsAdded) {
+            String term = searchDeptField.getText().trim();
+            for (Department department : ((DepartmentsAdded) event).getDepartments()) {
+                if (term.isEmpty() || !filterByName(List.of(department), Department::getName, term).isEmpty()) {
+                    departmentModel.add(new DepartmentSummary(department.getId(), department.getName()));
                 }
-                return this;
             }
-        });
-
-        // Update employee count
-        updateEmployeeCount();
+            lastDepartmentTerm = null;
+        } else if (event instanceof EmployeesAdded) {
+            ((EmployeesAdded) event).getEmployees().stream()
+                    .filter(e -> e.getDepartment() != null)
+                    .forEach(e -> employeePages.invalidate(e.getDepartment().getId()));
+            List<EmployeeSummary> rows = ((EmployeesAdded) event).getEmployees().stream()
+                    .filter(e -> e.getDepartment() != null && e.getDepartment().getId().equals(selectedId))
+                    .map(e -> new EmployeeSummary(e.getId(), e.getName(), selectedId, selectedDept.getName()))
+                    .sorted(Comparator.comparing(EmployeeSummary::getId))
+                    .collect(Collectors.toList());
+            if (!rows.isEmpty()) {
+                updateEmployeeCount();
+                if (lastEmployeeTerm == null && !empTableModel.appendRows(rows)) {
+                    refreshEmployeeList();
+                }
+            }
+        } else if (event instanceof DepartmentsRenamed) {
+            ((DepartmentsRenamed) event).getNewNames().keySet().forEach(employeePages::invalidate);
+            ((DepartmentsRenamed) event).getNewNames().forEach(departmentModel::rename);
+            lastDepartmentTerm = null;
+            if (lastEmployeeTerm == null && ((DepartmentsRenamed) event).getNewNames().containsKey(selectedId)) {
+                refreshEmployeeList();
+            }
+        } else if (event instanceof DepartmentDeleted) {
+            employeePages.invalidate(((DepartmentDeleted) event).getDepartmentId());
+            lastDepartmentTerm = null;
+            if (searchDeptField.getText().trim().isEmpty()) {
+                departmentModel.reload();
+            } else {
+                searchDepartments(false);
+            }
+        } else if (event instanceof EmployeesMoved) {
+            EmployeesMoved moved = (EmployeesMoved) event;
+            employeePages.invalidate(moved.getFromDepartmentId());
+            employeePages.invalidate(moved.getToDepartmentId());
+            if (moved.getFromDepartmentId().equals(selectedId) || moved.getToDepartmentId().equals(selectedId)) {
+                updateEmployeeCount();
+                if (lastEmployeeTerm == null) {
+                    refreshEmployeeList();
+                }
+            }
+        }
     }
 
     private void refreshEmployeeList() {
-        Department selectedDept = (Department) departmentComboBox.getSelectedItem();
+        lastEmployeeTerm = null;
+        DepartmentSummary selectedDept = (DepartmentSummary) departmentComboBox.getSelectedItem();
         if (selectedDept != null) {
-            List<Employee> employees = repository.getEmployeesByDepartment(selectedDept.getId());
-            empListArea.setText("");
-            for (Employee emp : employees) {
-                empListArea.append(emp.getName() + "\n");
+            empTableModel.setSource(EmployeeTableModel.PageSource.department(repository, selectedDept.getId(), employeePages),
+                    count -> { });
+        }
+    }
+
+    /** Loads the first page of the departments either side of the selection, so stepping to them is instant. */
+    private void prefetchNeighbours() {
+        int selected = departmentModel.getSelectedIndex();
+        if (repository == null || selected < 0) {
+            return;
+        }
+        for (int offset : new int[]{-1, 1}) {
+            int index = selected + offset;
+            if (index < 0 || index >= departmentModel.getSize()) {
+                continue;
+            }
+            DepartmentSummary neighbour = departmentModel.getElementAt(index);
+            if (neighbour == DepartmentComboBoxModel.LOADING) {
+                continue;
             }
+            EmployeeTableModel.PageSource source =
+                    EmployeeTableModel.PageSource.department(repository, neighbour.getId(), employeePages);
+            // Best effort: a failure shows up if the department is actually opened.
+            loader.submit("prefetch:" + offset, () -> source.page(0, EmployeeTableModel.PAGE_SIZE),
+                    rows -> { }, error -> { });
         }
     }
 
     private void updateEmployeeCount() {
-        Department selectedDept = (Department) departmentComboBox.getSelectedItem();
+        DepartmentSummary selectedDept = (DepartmentSummary) departmentComboBox.getSelectedItem();
         if (selectedDept != null) {
-            Long count = repository.countEmployeesInDepartment(selectedDept.getId());
-            employeeCountLabel.setText(count.toString());
+            Long deptId = selectedDept.getId();
+            loader.submit("employeeCount", () -> repository.countEmployeesInDepartment(deptId),
+                    count -> employeeCountLabel.setText(count.toString()), this::showError);
         } else {
             employeeCountLabel.setText("0");
         }
@@ -0,0 +1,27 @@
+-- Schema as previously created by hibernate.hbm2ddl.auto=update. Databases that
+-- already have these tables are baselined at version 1 and skip this script.
+CREATE TABLE department (
+    id   BIGINT       NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE employee (
+    id            BIGINT       NOT NULL,
+    name          VARCHAR(255) NOT NULL,
+    department_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_employee_department FOREIGN KEY (department_id) REFERENCES department (id)
+) ENGINE = InnoDB;
+
+-- MySQL has no sequences; Hibernate emulates the pooled id generators with one-row tables.
+CREATE TABLE department_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+CREATE TABLE employee_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO department_seq VALUES (1);
+INSERT INTO employee_seq VALUES (1);
@@ -0,0 +1,26 @@
+-- Databases created before ids moved from IDENTITY to pooled generators either
+-- have no generator tables (hbm2ddl created IDENTITY columns, and baselining
+-- skipped V1) or got them starting at 1, below ids already in use. Create any
+-- missing table, then move both past the highest id plus one allocation block
+-- (50) so new ids cannot collide.
+CREATE TABLE IF NOT EXISTS department_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS employee_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO department_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM department
+WHERE NOT EXISTS (SELECT * FROM department_seq);
+
+INSERT INTO employee_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM employee
+WHERE NOT EXISTS (SELECT * FROM employee_seq);
+
+UPDATE department_seq
+SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 51 FROM department));
+
+UPDATE employee_seq
+SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 51 FROM employee));
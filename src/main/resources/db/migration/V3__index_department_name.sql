@@ -0,0 +1,2 @@
+-- Type-ahead in the department picker looks departments up by name prefix.
+CREATE INDEX idx_department_name ON department (name);
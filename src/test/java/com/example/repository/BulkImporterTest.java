@@ -0,0 +1,62 @@
+package com.example.repository;
+
+import com.example.entity.Department;
+import junit.framework.TestCase;
+import org.hibernate.stat.Statistics;
+
+import java.io.StringReader;
+import java.util.Map;
+
+public class BulkImporterTest extends TestCase {
+    private CompanyRepository repository;
+
+    @Override
+    protected void setUp() {
+        Map<String, Object> properties = TestDatabase.h2();
+        properties.put("hibernate.generate_statistics", "true");
+        repository = new CompanyRepository(properties);
+    }
+
+    @Override
+    protected void tearDown() {
+        repository.close();
+    }
+
+    public void testImportsInBatches() throws Exception {
+        StringBuilder csv = new StringBuilder("department,employee\n");
+        for (int i = 0; i < 1_000; i++) {
+            csv.append(i % 2 == 0 ? "Engineering" : "\"Sales, EMEA\"").append(",Person ").append(i).append('\n');
+        }
+        Statistics statistics = repository.getStatistics();
+        statistics.clear();
+
+        long[] progressCalls = new long[1];
+        BulkImporter.Result result = new BulkImporter(repository, 50, 200)
+                .importCsv(new StringReader(csv.toString()), (rows, rate) -> progressCalls[0]++);
+
+        assertEquals(1_000, result.getRows());
+        assertEquals(2, result.getDepartmentsCreated());
+        assertEquals(5, progressCalls[0]);
+        assertEquals(5, statistics.getTransactionCount());
+        assertEquals(1_002, statistics.getEntityInsertCount());
+        assertTrue("statements: " + statistics.getPrepareStatementCount(),
+                statistics.getPrepareStatementCount() < 100);
+        assertEquals(2, repository.getAllDepartments().size());
+        Long salesId = repository.findDepartmentsByName("Sales, EMEA").get(0).getId();
+        assertEquals(Long.valueOf(500), repository.countEmployeesInDepartment(salesId));
+    }
+
+    public void testReusesExistingDepartmentsWithoutLoadingThem() throws Exception {
+        repository.addDepartment(new Department("Engineering"));
+        Statistics statistics = repository.getStatistics();
+        statistics.clear();
+
+        BulkImporter.Result result = new BulkImporter(repository)
+                .importCsv(new StringReader("Engineering,Ada\nResearch,Grace\n"), null);
+
+        assertEquals(2, result.getRows());
+        assertEquals(1, result.getDepartmentsCreated());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(2, repository.countDepartments());
+    }
+}
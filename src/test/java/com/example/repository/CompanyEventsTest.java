@@ -0,0 +1,94 @@
+package com.example.repository;
+
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import com.example.event.CompanyEvent;
+import com.example.event.DepartmentDeleted;
+import com.example.event.DepartmentsAdded;
+import com.example.event.EmployeesAdded;
+import com.example.event.EmployeesMoved;
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class CompanyEventsTest extends TestCase {
+    private CompanyRepository repository;
+    private final List<CompanyEvent> events = new CopyOnWriteArrayList<>();
+
+    @Override
+    protected void setUp() {
+        repository = new CompanyRepository(TestDatabase.h2());
+        repository.getEvents().addListener(events::add);
+    }
+
+    @Override
+    protected void tearDown() {
+        repository.close();
+    }
+
+    public void testInsertsArePublishedAfterCommit() {
+        Department department = new Department("Research");
+        List<Long> visibleOnPublish = new CopyOnWriteArrayList<>();
+        repository.getEvents().addListener(event -> {
+            if (event instanceof DepartmentsAdded) {
+                // Committed by the time listeners run, so a fresh read sees the row.
+                repository.getAllDepartments().forEach(d -> visibleOnPublish.add(d.getId()));
+            }
+        });
+
+        repository.addDepartment(department);
+        repository.addEmployee(new Employee("Ada", department));
+
+        assertEquals(2, events.size());
+        assertSame(department, ((DepartmentsAdded) events.get(0)).getDepartments().get(0));
+        assertEquals(List.of(department.getId()), visibleOnPublish);
+        assertEquals("Ada", ((EmployeesAdded) events.get(1)).getEmployees().get(0).getName());
+    }
+
+    public void testRolledBackWritesPublishNothing() {
+        try {
+            repository.addEmployee(new Employee(null, null));
+            fail();
+        } catch (RuntimeException expected) {
+        }
+
+        assertTrue(events.isEmpty());
+    }
+
+    public void testOneEventPerGroupCommit() throws Exception {
+        Department department = new Department("Support");
+        repository.addDepartment(department);
+        events.clear();
+
+        try (WriteBehindQueue queue = new WriteBehindQueue(repository, 1_000, 500, 50)) {
+            for (int i = 0; i < 100; i++) {
+                queue.addEmployee(new Employee("Agent " + i, department));
+            }
+        }
+
+        int employees = 0;
+        for (CompanyEvent event : events) {
+            employees += ((EmployeesAdded) event).getEmployees().size();
+        }
+        assertEquals(100, employees);
+        assertTrue(events.size() < 100);
+    }
+
+    public void testBulkOperationsArePublished() {
+        Department from = new Department("Old");
+        Department to = new Department("New");
+        repository.addDepartment(from);
+        repository.addDepartment(to);
+        repository.addEmployee(new Employee("Mover", from));
+        events.clear();
+
+        repository.moveEmployees(from.getId(), to.getId());
+        repository.deleteDepartment(from.getId());
+        repository.deleteDepartment(from.getId());
+
+        assertEquals(2, events.size());
+        assertEquals(1, ((EmployeesMoved) events.get(0)).getCount());
+        assertEquals(from.getId(), ((DepartmentDeleted) events.get(1)).getDepartmentId());
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.repository;
+
+import com.example.dto.DepartmentSummary;
+import com.example.dto.EmployeeSummary;
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+public class CompanyRepositoryTest extends TestCase {
+    private CompanyRepository repository;
+
+    @Override
+    protected void setUp() {
+        repository = new CompanyRepository(TestDatabase.h2());
+    }
+
+    @Override
+    protected void tearDown() {
+        repository.close();
+    }
+
+    public void testHeapStaysFlatAfterManyReads() {
+        int departments = 500;
+        int perDepartment = 100;
+        List<Long> departmentIds = repository.inTransaction(em -> {
+            List<Long> ids = new ArrayList<>();
+            for (int d = 0; d < departments; d++) {
+                Department department = new Department("Department " + d);
+                em.persist(department);
+                for (int i = 0; i < perDepartment; i++) {
+                    em.persist(new Employee("Employee " + d + "-" + i, department));
+                }
+                em.flush();
+                em.clear();
+                ids.add(department.getId());
+            }
+            return ids;
+        });
+
+        for (int i = 0; i < 1_000; i++) {
+            repository.getEmployeesByDepartment(departmentIds.get(i % 10));
+        }
+        long before = usedHeap();
+        // Every department is read in turn, so a persistence context that outlived
+        // its read would end up holding every employee rather than the same few.
+        for (Long departmentId : departmentIds) {
+            assertEquals(perDepartment, repository.getEmployeesByDepartment(departmentId).size());
+        }
+        long growth = usedHeap() - before;
+
+        assertTrue("heap grew by " + growth + " bytes", growth < 4L * 1024 * 1024);
+    }
+
+    public void testConcurrentCallersAreSafe() throws Exception {
+        Department department = new Department("Sales");
+        repository.addDepartment(department);
+
+        int threads = 8;
+        int perThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    repository.addEmployee(new Employee("Worker " + worker + "-" + i, department));
+                    repository.countEmployeesInDepartment(department.getId());
+                    repository.findEmployeesByName("Worker " + worker);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(Long.valueOf(threads * perThread), repository.countEmployeesInDepartment(department.getId()));
+        assertEquals(perThread, repository.findEmployeesByName("Worker 3-").size());
+        assertEquals("Sales", repository.findEmployeesByName("Worker 3-").get(0).getDepartment().getName());
+    }
+
+    public void testKeysetPagination() {
+        Department department = new Department("Support");
+        repository.addDepartment(department);
+        for (int i = 0; i < 250; i++) {
+            repository.addEmployee(new Employee("Agent " + i, department));
+        }
+
+        List<EmployeeSummary> first = repository.getEmployeesPage(department.getId(), 0, 100);
+        long lastId = first.get(99).getId();
+        List<EmployeeSummary> second = repository.getEmployeesPage(department.getId(), lastId, 100);
+        Long thirdStart = repository.findEmployeeKeyAfter(department.getId(), 0, 199);
+
+        assertEquals(100, first.size());
+        assertEquals("Agent 100", second.get(0).getName());
+        assertEquals(second.get(99).getId(), thirdStart);
+        assertEquals(50, repository.getEmployeesPage(department.getId(), thirdStart, 100).size());
+        assertNull(repository.findEmployeeKeyAfter(department.getId(), 0, 250));
+        assertEquals(Long.valueOf(11), repository.countEmployeesByName("Agent 24"));
+        assertEquals("Support", repository.findEmployeesByNamePage("Agent 2", 0, 10).get(0).getDepartmentName());
+    }
+
+    public void testNameIndexAgreesWithLike() throws Exception {
+        String name = "index-" + System.nanoTime();
+        CompanyRepository plain = new CompanyRepository(TestDatabase.h2(name));
+        Department department = new Department("Phòng Kỹ thuật");
+        plain.addDepartment(department);
+        for (String employee : new String[]{"Nguyễn Văn An", "Nguyen Thi Lan", "Tran Van Nam", "Le Hoang"}) {
+            plain.addEmployee(new Employee(employee, department));
+        }
+        plain.addEmployee(new Employee("Pham Van Binh", null));
+
+        Map<String, Object> properties = TestDatabase.h2(name);
+        properties.put("hibernate.hbm2ddl.auto", "none");
+        properties.put(CompanyRepository.NAME_INDEX_PROPERTY, "true");
+        CompanyRepository indexed = new CompanyRepository(properties);
+        try {
+            for (int i = 0; i < 100 && !indexed.isNameIndexReady(); i++) {
+                Thread.sleep(50);
+            }
+            assertTrue(indexed.isNameIndexReady());
+            indexed.addEmployee(new Employee("Van Nguyen", department));
+
+            for (String term : new String[]{"Nguyen", "Van", "an", "Nam", "zzz"}) {
+                assertEquals(term, names(plain.findEmployeeSummariesByName(term)), names(indexed.findEmployeeSummariesByName(term)));
+                assertEquals(term, plain.countEmployeesByName(term), indexed.countEmployeesByName(term));
+                assertEquals(term, (long) plain.countEmployeesByName(term), plain.findEmployeesByName(term).size());
+                assertEquals(term, (long) indexed.countEmployeesByName(term), indexed.findEmployeesByName(term).size());
+            }
+            assertEquals(1, indexed.findDepartmentsByName("Kỹ thu").size());
+            assertEquals(2, indexed.findEmployeesByName("Van", 2).size());
+            assertNull(plain.findEmployeesByName("Binh", 1).get(0).getDepartment());
+
+            // The index lookups are repository reads, so a cancelled search stops there too.
+            QueryCancellation cancellation = new QueryCancellation();
+            cancellation.run(() -> {
+                cancellation.cancel();
+                try {
+                    // Answered from the lookup alone, with no other query.
+                    indexed.countEmployeesByName("Thi");
+                    fail("lookup should have been refused");
+                } catch (CancellationException expected) {
+                    // superseded before the lookup started
+                }
+                return null;
+            });
+            // H2 compares case- and accent-sensitively, so "Nguyễn" is not a match here.
+            assertEquals(2, indexed.findEmployeesByNamePage("Nguyen", 0, 10).size());
+        } finally {
+            indexed.close();
+            plain.close();
+        }
+    }
+
+    public void testDepartmentPagingAndTypeAhead() {
+        for (String name : new String[]{"Support", "Sales", "Sales_EU", "Salesforce", "Sales", "Marketing"}) {
+            repository.addDepartment(new Department(name));
+        }
+
+        List<DepartmentSummary> first = repository.getDepartmentsPage(0, 4);
+        assertEquals(6, repository.countDepartments());
+        assertEquals(4, first.size());
+        Long fifth = repository.findDepartmentKeyAfter(first.get(0).getId(), 3);
+        assertEquals(repository.getDepartmentsPage(first.get(3).getId(), 4).get(0).getId(), fifth);
+        assertEquals(4, repository.countDepartmentsBefore(fifth));
+
+        List<String> matches = new ArrayList<>();
+        for (DepartmentSummary match = repository.findDepartmentByNamePrefix("Sales", null); match != null;
+             match = repository.findDepartmentByNamePrefix("Sales", match)) {
+            matches.add(match.getName());
+        }
+        assertEquals(List.of("Sales", "Sales", "Sales_EU", "Salesforce"), matches);
+        // "_" is matched literally, not as a wildcard.
+        assertEquals("Sales_EU", repository.findDepartmentByNamePrefix("Sales_", null).getName());
+        assertNull(repository.findDepartmentByNamePrefix("Sales_o", null));
+    }
+
+    public void testAddEmployeeByDepartmentId() {
+        Department department = new Department("Engineering");
+        repository.addDepartment(department);
+
+        Employee employee = repository.addEmployee("Ada", department.getId());
+
+        assertNotNull(employee.getId());
+        assertEquals(department.getId(), employee.getDepartment().getId());
+        assertEquals(1L, (long) repository.countEmployeesInDepartment(department.getId()));
+    }
+
+    private static List<String> names(List<EmployeeSummary> employees) {
+        List<String> names = new ArrayList<>();
+        employees.forEach(e -> names.add(e.getName()));
+        Collections.sort(names);
+        return names;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
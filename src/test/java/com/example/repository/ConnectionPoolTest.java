@@ -0,0 +1,74 @@
+package com.example.repository;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+public class ConnectionPoolTest extends TestCase {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 200;
+
+    public void testPoolExposesMetrics() {
+        CompanyRepository repository = new CompanyRepository(TestDatabase.h2());
+        try {
+            repository.getAllDepartments();
+            PoolMetrics metrics = repository.getPoolMetrics();
+
+            assertNotNull(metrics);
+            assertTrue(metrics.getAcquisitionCount() > 0);
+            assertEquals(0, metrics.getActiveConnections());
+            assertTrue(metrics.getIdleConnections() > 0);
+        } finally {
+            repository.close();
+        }
+    }
+
+    public void testThroughputScalesWithPoolSize() throws Exception {
+        double single = throughput(1);
+        double four = throughput(4);
+
+        assertTrue("pool=1: " + single + " ops/s, pool=4: " + four + " ops/s", four > single * 2.5);
+    }
+
+    /**
+     * Runs a fixed number of transactions that each hold their connection for a few
+     * milliseconds, as they would against a remote database, and returns ops/second.
+     */
+    private double throughput(int poolSize) throws Exception {
+        Map<String, Object> properties = TestDatabase.h2();
+        properties.put("hibernate.hikari.minimumIdle", String.valueOf(poolSize));
+        properties.put("hibernate.hikari.maximumPoolSize", String.valueOf(poolSize));
+        CompanyRepository repository = new CompanyRepository(properties);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<Object>> tasks = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS; i++) {
+                tasks.add(() -> repository.inTransaction(em -> {
+                    em.createNativeQuery("SELECT 1").getSingleResult();
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return null;
+                }));
+            }
+            long start = System.nanoTime();
+            for (Future<Object> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            PoolMetrics metrics = repository.getPoolMetrics();
+            assertEquals(poolSize, metrics.getTotalConnections());
+            assertEquals(0, metrics.getConnectionTimeouts());
+            return OPERATIONS / seconds;
+        } finally {
+            executor.shutdown();
+            repository.close();
+        }
+    }
+}
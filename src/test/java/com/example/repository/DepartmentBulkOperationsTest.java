@@ -0,0 +1,92 @@
+package com.example.repository;
+
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import junit.framework.TestCase;
+import org.hibernate.stat.Statistics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class DepartmentBulkOperationsTest extends TestCase {
+    private CompanyRepository repository;
+    private Statistics statistics;
+    private Department sales;
+    private Department support;
+
+    @Override
+    protected void setUp() throws Exception {
+        Map<String, Object> properties = TestDatabase.h2WithCache();
+        properties.put("hibernate.generate_statistics", "true");
+        properties.put(CompanyRepository.NAME_INDEX_PROPERTY, "true");
+        repository = new CompanyRepository(properties);
+        for (int i = 0; i < 100 && !repository.isNameIndexReady(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(repository.isNameIndexReady());
+
+        sales = new Department("Sales");
+        support = new Department("Support");
+        repository.addDepartment(sales);
+        repository.addDepartment(support);
+        for (int i = 0; i < 30; i++) {
+            repository.addEmployee(new Employee("Seller " + i, sales));
+        }
+        repository.addEmployee(new Employee("Helper", support));
+        // Warm the caches the bulk statements must invalidate.
+        assertEquals(30, employeeCollectionSize(sales.getId()));
+        assertEquals(2, repository.getAllDepartments().size());
+        assertEquals(30L, (long) repository.countEmployeesInDepartment(sales.getId()));
+        statistics = repository.getStatistics();
+        statistics.clear();
+    }
+
+    @Override
+    protected void tearDown() {
+        repository.close();
+    }
+
+    public void testMoveEmployeesLoadsNoEntities() {
+        assertEquals(30, repository.moveEmployees(sales.getId(), support.getId()));
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(31L, (long) repository.countEmployeesInDepartment(support.getId()));
+        assertFalse(repository.getHeadcounts().containsKey(sales.getId()));
+        assertEquals(0, employeeCollectionSize(sales.getId()));
+        assertEquals(31, employeeCollectionSize(support.getId()));
+        assertEquals(31, repository.getEmployeesByDepartment(support.getId()).size());
+    }
+
+    public void testDeleteDepartmentRemovesItsEmployees() {
+        assertEquals(30, repository.deleteDepartment(sales.getId()));
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(Collections.singletonList("Support"), names());
+        assertFalse(repository.getHeadcounts().containsKey(sales.getId()));
+        assertEquals(0L, (long) repository.countEmployeesByName("Seller"));
+        assertTrue(repository.findDepartmentsByName("Sales").isEmpty());
+        assertEquals(1, employeeCollectionSize(support.getId()));
+    }
+
+    public void testRenameDepartments() {
+        assertEquals(1, repository.renameDepartments(Map.of(sales.getId(), "Revenue", 999_999L, "Nobody")));
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertTrue(names().contains("Revenue"));
+        assertEquals(1, repository.findDepartmentsByName("Revenue").size());
+        assertTrue(repository.findDepartmentsByName("Sales").isEmpty());
+    }
+
+    private List<String> names() {
+        List<String> names = new ArrayList<>();
+        repository.getAllDepartments().forEach(d -> names.add(d.getName()));
+        Collections.sort(names);
+        return names;
+    }
+
+    private int employeeCollectionSize(Long departmentId) {
+        return repository.inTransaction(em -> em.find(Department.class, departmentId).getEmployees().size());
+    }
+}
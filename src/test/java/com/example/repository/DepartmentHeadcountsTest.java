@@ -0,0 +1,73 @@
+package com.example.repository;
+
+import junit.framework.TestCase;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+public class DepartmentHeadcountsTest extends TestCase {
+    private static final ToLongFunction<Long> NOT_COUNTED = id -> {
+        throw new AssertionError("department " + id + " counted on its own");
+    };
+
+    // Expired as soon as they are loaded, so every read would want to load again.
+    private final DepartmentHeadcounts headcounts = new DepartmentHeadcounts(0);
+    private final AtomicInteger groupedQueries = new AtomicInteger();
+
+    public void testExpiredCountsAreServedWhileOneLoadRuns() throws Exception {
+        assertEquals(3, headcounts.get(1L, () -> grouped(3), NOT_COUNTED));
+
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Long> slowLoad = executor.submit(() -> headcounts.get(1L, () -> {
+                loadStarted.countDown();
+                await(release);
+                return grouped(4);
+            }, NOT_COUNTED));
+            assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+
+            for (int i = 0; i < 10; i++) {
+                assertEquals(3, headcounts.get(1L, () -> grouped(5), NOT_COUNTED));
+                assertEquals(Map.of(1L, 3L), headcounts.get(() -> grouped(5)));
+            }
+            release.countDown();
+            assertEquals(Long.valueOf(4), slowLoad.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, groupedQueries.get());
+    }
+
+    public void testDiscardedLoadCountsSingleDepartment() {
+        long count = headcounts.get(1L, () -> {
+            // A write overlaps the load, so its result may count a row twice.
+            headcounts.writeStarted();
+            headcounts.writeFinished();
+            return grouped(7);
+        }, id -> 8);
+
+        assertEquals(8, count);
+        assertEquals(1, groupedQueries.get());
+    }
+
+    private Map<Long, Long> grouped(long count) {
+        groupedQueries.incrementAndGet();
+        return Map.of(1L, count);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.repository;
+
+import com.example.dto.EmployeeSummary;
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import junit.framework.TestCase;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class EmployeeExporterTest extends TestCase {
+    private CompanyRepository repository;
+    private Path file;
+
+    @Override
+    protected void setUp() throws Exception {
+        repository = new CompanyRepository(TestDatabase.h2());
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 25_000; i++) {
+            csv.append(i % 2 == 0 ? "Engineering" : "\"Sales, EMEA\"").append(",\"Person \"\"").append(i).append("\"\"\"\n");
+        }
+        new BulkImporter(repository, 500, 5_000).importCsv(new StringReader(csv.toString()), null);
+        file = Files.createTempFile("employees", ".csv");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        repository.close();
+        Files.deleteIfExists(file);
+    }
+
+    public void testCsvRoundTripsThroughImporter() throws Exception {
+        long[] progress = new long[1];
+        long rows = new EmployeeExporter(repository).export(null, EmployeeExporter.Format.CSV, file,
+                written -> progress[0] = written);
+
+        assertEquals(25_000, rows);
+        assertEquals(20_000, progress[0]);
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals("department,employee,id", lines.get(0));
+        assertTrue(lines.get(1), lines.get(1).startsWith("Engineering,\"Person \"\"0\"\"\","));
+
+        CompanyRepository copy = new CompanyRepository(TestDatabase.h2());
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            BulkImporter.Result result = new BulkImporter(copy).importCsv(reader, null);
+            assertEquals(25_000, result.getRows());
+            assertEquals(2, result.getDepartmentsCreated());
+            assertEquals(1, copy.findEmployeeSummariesByName("Person \"24999\"").size());
+        } finally {
+            copy.close();
+        }
+    }
+
+    public void testCsvRoundTripsLineBreaksAndEmployeesWithoutDepartment() throws Exception {
+        CompanyRepository source = new CompanyRepository(TestDatabase.h2());
+        CompanyRepository copy = new CompanyRepository(TestDatabase.h2());
+        try {
+            Department ops = new Department("Ops\r\nNights");
+            source.addDepartment(ops);
+            source.addEmployee(new Employee("First line\nsecond, \"quoted\" line", ops));
+            source.addEmployee(new Employee("Freelancer", null));
+            assertEquals(2, new EmployeeExporter(source).export(null, EmployeeExporter.Format.CSV, file, null));
+
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                BulkImporter.Result result = new BulkImporter(copy).importCsv(reader, null);
+                assertEquals(2, result.getRows());
+                assertEquals(1, result.getDepartmentsCreated());
+            }
+            // Line breaks inside a quoted field come back as \n.
+            EmployeeSummary multiLine = copy.findEmployeeSummariesByName("second").get(0);
+            assertEquals("First line\nsecond, \"quoted\" line", multiLine.getName());
+            assertEquals("Ops\nNights", multiLine.getDepartmentName());
+            EmployeeSummary freelancer = copy.findEmployeeSummariesByName("Freelancer").get(0);
+            assertNull(freelancer.getDepartmentId());
+        } finally {
+            source.close();
+            copy.close();
+        }
+    }
+
+    public void testJsonLinesForOneDepartment() throws Exception {
+        Long salesId = repository.findDepartmentsByName("Sales, EMEA").get(0).getId();
+
+        long rows = new EmployeeExporter(repository).export(salesId, EmployeeExporter.Format.JSON_LINES, file, null);
+
+        assertEquals(12_500, rows);
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(12_500, lines.size());
+        assertTrue(lines.get(0), lines.get(0).matches(
+                "\\{\"id\":\\d+,\"name\":\"Person \\\\\"1\\\\\"\",\"departmentId\":" + salesId + ",\"department\":\"Sales, EMEA\"}"));
+    }
+}
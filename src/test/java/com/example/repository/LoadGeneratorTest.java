@@ -0,0 +1,54 @@
+package com.example.repository;
+
+import junit.framework.TestCase;
+
+import java.time.Duration;
+import java.util.List;
+
+public class LoadGeneratorTest extends TestCase {
+    private CompanyRepository repository;
+
+    @Override
+    protected void setUp() {
+        repository = new CompanyRepository(TestDatabase.h2());
+    }
+
+    @Override
+    protected void tearDown() {
+        repository.close();
+    }
+
+    public void testRecordsEveryOperationOfTheMix() throws Exception {
+        LoadGenerator generator = new LoadGenerator(repository, LoadGenerator.Mix.parse("2:1:1"), 4);
+        List<Long> departments = generator.prepare(3);
+        assertEquals(3, departments.size());
+        assertEquals(departments, generator.prepare(3));
+
+        LoadGenerator.Result result = generator.run(departments, Duration.ofMillis(100), Duration.ofMillis(500));
+
+        for (LoadGenerator.Operation operation : LoadGenerator.Operation.values()) {
+            assertTrue(operation.name(), result.getCount(operation) > 0);
+            assertEquals(operation.name(), 0, result.getErrors(operation));
+        }
+        assertTrue(result.getThroughput() > 0);
+        long employees = 0;
+        for (Long department : departments) {
+            employees += repository.countEmployeesInDepartment(department);
+        }
+        // Inserts made during the warm-up are not recorded but still happened.
+        assertTrue(employees >= result.getCount(LoadGenerator.Operation.INSERT));
+    }
+
+    public void testRejectsMalformedMix() {
+        try {
+            LoadGenerator.Mix.parse("1:2");
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new LoadGenerator.Mix(0, 0, 0);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.repository;
+
+import java.io.BufferedWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares substring employee search through {@code LIKE '%term%'} with the
+ * trigram index path on an embedded H2 database. Not a unit test; run with
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.repository.NameSearchBenchmark -Drows=1000000
+ * </pre>
+ */
+public class NameSearchBenchmark {
+    private static final String[] SYLLABLES = {
+            "an", "binh", "cuong", "dung", "giang", "hoa", "hung", "khanh", "lan", "linh",
+            "minh", "nam", "ngoc", "phuong", "quang", "son", "thanh", "trang", "tuan", "vy"
+    };
+    private static final String[] TERMS = {"khanhquang", "vythanh", "sonlinh", "ngocdung"};
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.getInteger("rows", 1_000_000);
+        int iterations = Integer.getInteger("iterations", 20);
+        String database = "name-search-benchmark";
+
+        CompanyRepository plain = new CompanyRepository(TestDatabase.h2(database));
+        Path csv = Files.createTempFile("employees", ".csv");
+        try {
+            writeCsv(csv, rows);
+            try (Reader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+                BulkImporter.Result result = new BulkImporter(plain, 1_000, 50_000).importCsv(reader, null);
+                System.out.printf("Seeded %,d employees at %,.0f rows/s%n", result.getRows(), result.getRowsPerSecond());
+            }
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+
+        Map<String, Object> properties = TestDatabase.h2(database);
+        properties.put("hibernate.hbm2ddl.auto", "none");
+        properties.put(CompanyRepository.NAME_INDEX_PROPERTY, "true");
+        long buildStart = System.nanoTime();
+        CompanyRepository indexed = new CompanyRepository(properties);
+        while (!indexed.isNameIndexReady()) {
+            Thread.sleep(10);
+        }
+        System.out.printf("Index built in %,d ms%n", (System.nanoTime() - buildStart) / 1_000_000);
+
+        try {
+            run("LIKE   ", plain, iterations);
+            run("trigram", indexed, iterations);
+        } finally {
+            indexed.close();
+            plain.close();
+        }
+    }
+
+    private static void run(String label, CompanyRepository repository, int iterations) {
+        for (String term : TERMS) {
+            repository.countEmployeesByName(term);
+            long start = System.nanoTime();
+            long matches = 0;
+            for (int i = 0; i < iterations; i++) {
+                matches = repository.countEmployeesByName(term);
+                repository.findEmployeesByNamePage(term, 0, 100);
+            }
+            double micros = (System.nanoTime() - start) / 1_000.0 / iterations;
+            System.out.printf("%s %-12s %,8d matches  %,12.0f us/search%n", label, term, matches, micros);
+        }
+    }
+
+    private static void writeCsv(Path file, int rows) throws Exception {
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < rows; i++) {
+                writer.write("Department " + (i % 200));
+                writer.write(',');
+                for (int s = 0; s < 3; s++) {
+                    writer.write(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+                }
+                writer.write(' ');
+                writer.write(Integer.toString(i));
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.repository;
+
+import com.example.entity.Department;
+import junit.framework.TestCase;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class QueryCancellationTest extends TestCase {
+    private static final CountDownLatch SLEEPING = new CountDownLatch(1);
+
+    private CompanyRepository repository;
+
+    @Override
+    protected void setUp() {
+        repository = new CompanyRepository(TestDatabase.h2());
+        repository.addDepartment(new Department("Research"));
+    }
+
+    @Override
+    protected void tearDown() {
+        repository.close();
+    }
+
+    public void testReadsRunUnderLiveToken() throws Exception {
+        QueryCancellation cancellation = new QueryCancellation();
+
+        assertEquals(1, cancellation.run(() -> repository.findDepartmentsByName("Research")).size());
+        assertNull(QueryCancellation.current());
+    }
+
+    public void testCancelledTokenRejectsReads() throws Exception {
+        QueryCancellation cancellation = new QueryCancellation();
+        cancellation.run(() -> {
+            cancellation.cancel();
+            try {
+                repository.getAllDepartments();
+                fail("read should have been refused");
+            } catch (CancellationException expected) {
+                // superseded before the query started
+            }
+            return null;
+        });
+        assertTrue(cancellation.isCancelled());
+    }
+
+    public void testWritesAreNotCancelled() throws Exception {
+        QueryCancellation cancellation = new QueryCancellation();
+        cancellation.run(() -> {
+            cancellation.cancel();
+            repository.addDepartment(new Department("Finance"));
+            return null;
+        });
+
+        assertEquals(2, repository.getAllDepartments().size());
+    }
+
+    public void testCancelAbortsRunningQuery() throws Exception {
+        repository.inTransaction(em -> em.createNativeQuery(
+                "CREATE ALIAS SLEEP FOR \"" + QueryCancellationTest.class.getName() + ".sleep\"").executeUpdate());
+        QueryCancellation cancellation = new QueryCancellation();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // A millisecond per row: about ten seconds unless it is cancelled.
+            Future<Object> slow = executor.submit(() -> cancellation.run(() -> repository.read(em -> em.createNativeQuery(
+                    "SELECT COUNT(*) FROM SYSTEM_RANGE(1, 10000) WHERE SLEEP(1) = 0").getSingleResult())));
+            assertTrue(SLEEPING.await(5, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            cancellation.cancel();
+            try {
+                slow.get(2, TimeUnit.SECONDS);
+                fail("query should have been cancelled");
+            } catch (ExecutionException expected) {
+                // H2 reports the cancelled statement, which Hibernate wraps
+            }
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Called by H2 through the SLEEP alias. */
+    public static int sleep(int millis) throws InterruptedException {
+        SLEEPING.countDown();
+        Thread.sleep(millis);
+        return 0;
+    }
+}
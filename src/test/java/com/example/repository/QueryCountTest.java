@@ -0,0 +1,124 @@
+package com.example.repository;
+
+import com.example.dto.EmployeeSummary;
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import junit.framework.TestCase;
+import org.hibernate.stat.Statistics;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts prepared statements through Hibernate statistics to make sure employee
+ * searches do not lazy-load departments one by one.
+ */
+public class QueryCountTest extends TestCase {
+    private CompanyRepository repository;
+    private Statistics statistics;
+
+    @Override
+    protected void setUp() {
+        Map<String, Object> properties = TestDatabase.h2();
+        properties.put("hibernate.generate_statistics", "true");
+        repository = new CompanyRepository(properties);
+        for (int d = 0; d < 5; d++) {
+            Department department = new Department("Department " + d);
+            repository.addDepartment(department);
+            for (int i = 0; i < 10; i++) {
+                repository.addEmployee(new Employee("Person " + d + "-" + i, department));
+            }
+        }
+        statistics = repository.getStatistics();
+        statistics.clear();
+    }
+
+    @Override
+    protected void tearDown() {
+        repository.close();
+    }
+
+    public void testSummarySearchRunsOneQuery() {
+        List<EmployeeSummary> result = repository.findEmployeeSummariesByName("Person");
+
+        assertEquals(50, result.size());
+        assertEquals(5, result.stream().map(EmployeeSummary::getDepartmentName).distinct().count());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    public void testEntitySearchFetchesDepartmentsInSameQuery() {
+        List<Employee> result = repository.findEmployeesByName("Person");
+        result.forEach(e -> e.getDepartment().getName());
+
+        assertEquals(50, result.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    public void testSearchPageRunsOneQuery() {
+        List<EmployeeSummary> page = repository.findEmployeesByNamePage("Person", 0, 20);
+
+        assertEquals(20, page.size());
+        assertNotNull(page.get(19).getDepartmentName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    public void testProjectionsLoadNoEntities() {
+        Long departmentId = repository.getDepartmentsPage(0, 1).get(0).getId();
+        List<EmployeeSummary> streamed = new ArrayList<>();
+
+        assertEquals(10, repository.getEmployeesPage(departmentId, 0, 100).size());
+        repository.streamEmployees(departmentId, streamed::add);
+
+        assertEquals(10, streamed.size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    public void testHeadcountsLoadOnceAndFollowInserts() {
+        Map<Long, Long> headcounts = repository.getHeadcounts();
+        assertEquals(5, headcounts.size());
+        assertTrue(headcounts.values().stream().allMatch(count -> count == 10));
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        Long departmentId = headcounts.keySet().iterator().next();
+        Department department = new Department("Department " + departmentId);
+        department.setId(departmentId);
+        repository.addEmployee(new Employee("Newcomer", department));
+        statistics.clear();
+
+        for (Long id : headcounts.keySet()) {
+            assertEquals(Long.valueOf(id.equals(departmentId) ? 11 : 10), repository.countEmployeesInDepartment(id));
+        }
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    public void testHeadcountsExpireAndPickUpOtherWriters() throws Exception {
+        Map<String, Object> properties = TestDatabase.h2();
+        properties.put(CompanyRepository.HEADCOUNT_MAX_AGE_PROPERTY, "500");
+        CompanyRepository shortLived = new CompanyRepository(properties);
+        try {
+            Department department = new Department("Night shift");
+            shortLived.addDepartment(department);
+            shortLived.addEmployee(new Employee("Guard", department));
+            assertEquals(Long.valueOf(1), shortLived.countEmployeesInDepartment(department.getId()));
+
+            // Another process inserts behind this repository's back.
+            try (Connection connection = DriverManager.getConnection(
+                    properties.get("javax.persistence.jdbc.url").toString(), "sa", "");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("INSERT INTO employee (id, name, department_id) VALUES (100000, 'Porter', "
+                        + department.getId() + ")");
+            }
+            assertEquals(Long.valueOf(1), shortLived.countEmployeesInDepartment(department.getId()));
+
+            Thread.sleep(600);
+            assertEquals(Long.valueOf(2), shortLived.countEmployeesInDepartment(department.getId()));
+        } finally {
+            shortLived.close();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.repository;
+
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import junit.framework.TestCase;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class QueryPlanAnalyzerTest extends TestCase {
+    private CompanyRepository seeded;
+    private Map<String, Object> properties;
+
+    @Override
+    protected void setUp() {
+        String name = "plans-" + UUID.randomUUID();
+        seeded = new CompanyRepository(TestDatabase.h2(name));
+        seeded.inTransaction(em -> {
+            for (int d = 0; d < 20; d++) {
+                Department department = new Department("Department " + d);
+                em.persist(department);
+                for (int i = 0; i < 100; i++) {
+                    em.persist(new Employee("Employee " + d + "-" + i, department));
+                }
+            }
+            return null;
+        });
+        properties = TestDatabase.h2(name);
+        properties.put("hibernate.hbm2ddl.auto", "none");
+    }
+
+    @Override
+    protected void tearDown() {
+        seeded.close();
+    }
+
+    public void testRepositoryQueriesDoNotScan() throws Exception {
+        List<PlanFinding> findings = new QueryPlanAnalyzer(properties).analyze();
+
+        List<PlanFinding> regressions = findings.stream()
+                .filter(finding -> !finding.isExpected())
+                .collect(Collectors.toList());
+        assertTrue(regressions.toString(), regressions.isEmpty());
+        // LIKE '%term%' cannot use an index, so the fallback searches always scan.
+        assertTrue(findings.stream().anyMatch(finding -> finding.getMethod().equals("findEmployeesByName")
+                && finding.getKind() == PlanFinding.Kind.FULL_SCAN));
+    }
+
+    public void testLeavesDataAndSchemaAlone() throws Exception {
+        properties.put(SchemaMigrations.ENABLED_PROPERTY, "true");
+
+        new QueryPlanAnalyzer(properties).analyze();
+
+        assertEquals(20, seeded.countDepartments());
+        assertEquals(Long.valueOf(2_000), seeded.countEmployeesByName("Employee"));
+        try (Connection connection = DriverManager.getConnection(
+                properties.get("javax.persistence.jdbc.url").toString(), "sa", "");
+             ResultSet tables = connection.getMetaData().getTables(null, null, "flyway_schema_history", null)) {
+            assertFalse("migrations ran", tables.next());
+        }
+    }
+
+    public void testFlagsScanWhenDepartmentColumnIsNotIndexed() throws Exception {
+        String name = "unindexed-" + UUID.randomUUID();
+        // No foreign key, so nothing indexes employee.department_id.
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE department (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL)");
+            statement.execute("CREATE TABLE employee (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL, department_id BIGINT)");
+            statement.execute("CREATE SEQUENCE department_seq INCREMENT BY 50");
+            statement.execute("CREATE SEQUENCE employee_seq INCREMENT BY 50");
+            statement.execute("INSERT INTO department VALUES (1, 'Sales')");
+            statement.execute("INSERT INTO employee SELECT X, 'Seller ' || X, 1 FROM SYSTEM_RANGE(1, 500)");
+
+            Map<String, Object> unindexed = TestDatabase.h2(name);
+            unindexed.put("hibernate.hbm2ddl.auto", "none");
+            List<PlanFinding> regressions = new QueryPlanAnalyzer(unindexed).analyze().stream()
+                    .filter(finding -> !finding.isExpected())
+                    .collect(Collectors.toList());
+
+            PlanFinding scan = regressions.stream()
+                    .filter(finding -> finding.getMethod().equals("getEmployeesByDepartment"))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError(regressions));
+            assertEquals(PlanFinding.Kind.FULL_SCAN, scan.getKind());
+            assertEquals("employee", scan.getTable());
+            assertEquals("@Index(name = \"idx_employee_department_id\", columnList = \"department_id\")",
+                    scan.getSuggestedIndex());
+        }
+    }
+}
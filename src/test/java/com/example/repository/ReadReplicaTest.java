@@ -0,0 +1,98 @@
+package com.example.repository;
+
+import com.example.entity.Department;
+import junit.framework.TestCase;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Routes reads between two embedded databases. The "replicas" are not
+ * replicated, so where a read went shows in which rows it sees.
+ */
+public class ReadReplicaTest extends TestCase {
+    private final Map<String, Object> replicaASettings = TestDatabase.h2();
+    private final Map<String, Object> replicaBSettings = TestDatabase.h2();
+    private CompanyRepository replicaA;
+    private CompanyRepository replicaB;
+    private CompanyRepository repository;
+
+    @Override
+    protected void setUp() {
+        replicaA = seededDatabase(replicaASettings, "Replica A");
+        replicaB = seededDatabase(replicaBSettings, "Replica B");
+    }
+
+    @Override
+    protected void tearDown() {
+        if (repository != null) {
+            repository.close();
+        }
+        replicaB.close();
+        replicaA.close();
+    }
+
+    public void testReadsAreBalancedOverReplicasAndWritesGoToPrimary() {
+        repository = routed(0, url(replicaASettings), url(replicaBSettings));
+        repository.addDepartment(new Department("Primary"));
+
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            seen.addAll(names(repository.getAllDepartments()));
+        }
+
+        assertEquals(Set.of("Replica A", "Replica B"), seen);
+        assertEquals(Set.of("Replica A"), names(replicaA.getAllDepartments()));
+    }
+
+    public void testReadYourWritesStaysOnPrimary() {
+        repository = routed(60_000, url(replicaASettings));
+        assertEquals(Set.of("Replica A"), names(repository.getAllDepartments()));
+
+        repository.addDepartment(new Department("Primary"));
+
+        assertEquals(Set.of("Primary"), names(repository.getAllDepartments()));
+    }
+
+    public void testFailsOverWhenReplicaIsDown() {
+        String missing = "jdbc:h2:mem:missing-" + UUID.randomUUID() + ";IFEXISTS=TRUE";
+        repository = routed(0, missing, url(replicaASettings));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Set.of("Replica A"), names(repository.getAllDepartments()));
+        }
+    }
+
+    public void testFallsBackToPrimaryWithoutReplicas() {
+        repository = routed(0, "jdbc:h2:mem:missing-" + UUID.randomUUID() + ";IFEXISTS=TRUE");
+        repository.addDepartment(new Department("Primary"));
+
+        assertEquals(Set.of("Primary"), names(repository.getAllDepartments()));
+    }
+
+    private CompanyRepository routed(long readYourWritesMillis, String... replicaUrls) {
+        Map<String, Object> properties = TestDatabase.h2();
+        properties.put(RoutingConnectionProvider.REPLICA_URLS_PROPERTY, String.join(",", replicaUrls));
+        properties.put(RoutingConnectionProvider.REPLICA_TIMEOUT_PROPERTY, "250");
+        properties.put(CompanyRepository.READ_YOUR_WRITES_PROPERTY, Long.toString(readYourWritesMillis));
+        return new CompanyRepository(properties);
+    }
+
+    private static CompanyRepository seededDatabase(Map<String, Object> settings, String department) {
+        CompanyRepository database = new CompanyRepository(settings);
+        database.addDepartment(new Department(department));
+        return database;
+    }
+
+    private static String url(Map<String, Object> settings) {
+        return (String) settings.get("javax.persistence.jdbc.url");
+    }
+
+    private static Set<String> names(List<Department> departments) {
+        return departments.stream().map(Department::getName).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.repository;
+
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import junit.framework.TestCase;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+
+public class RepositoryMetricsTest extends TestCase {
+    private CompanyRepository repository;
+
+    @Override
+    protected void setUp() {
+        repository = new CompanyRepository(TestDatabase.h2());
+        Department department = new Department("Operations");
+        repository.addDepartment(department);
+        for (int i = 0; i < 10; i++) {
+            repository.addEmployee(new Employee("Worker " + i, department));
+        }
+        repository.getMetrics().reset();
+    }
+
+    @Override
+    protected void tearDown() {
+        repository.close();
+    }
+
+    public void testRecordsCallsStatementsAndRows() {
+        for (int i = 0; i < 3; i++) {
+            repository.findEmployeeSummariesByName("Worker");
+        }
+
+        MethodStats stats = find("findEmployeeSummariesByName");
+        assertEquals(3, stats.getCalls());
+        assertEquals(3, stats.getStatements());
+        assertEquals(30, stats.getRows());
+        assertEquals(0, stats.getErrors());
+        assertTrue(stats.getMaxMillis() >= stats.getP50Millis());
+    }
+
+    public void testRecordsTransactions() {
+        repository.addDepartment(new Department("Logistics"));
+
+        assertEquals(1, find("addDepartment").getCalls());
+        assertEquals(1, repository.getMetrics().getTransactions().getCalls());
+    }
+
+    public void testPublishesMXBean() throws Exception {
+        repository.getAllDepartments();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        Set<ObjectName> names = server.queryNames(new ObjectName("com.example:type=CompanyRepository,*"), null);
+        assertFalse(names.isEmpty());
+        boolean found = false;
+        for (ObjectName name : names) {
+            for (CompositeData method : (CompositeData[]) server.getAttribute(name, "Methods")) {
+                found |= "getAllDepartments".equals(method.get("name"));
+            }
+        }
+        assertTrue(found);
+
+        repository.close();
+        assertTrue(server.queryNames(new ObjectName("com.example:type=CompanyRepository,*"), null).size() < names.size());
+        repository = new CompanyRepository(TestDatabase.h2());
+    }
+
+    private MethodStats find(String method) {
+        return repository.getMetrics().getMethods().stream()
+                .filter(stats -> stats.getName().equals(method))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+    }
+}
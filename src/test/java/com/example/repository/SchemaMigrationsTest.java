@@ -0,0 +1,81 @@
+package com.example.repository;
+
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import junit.framework.TestCase;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Runs the Flyway scripts on H2 in MySQL mode and lets Hibernate validate the
+ * result against the entity mappings.
+ */
+public class SchemaMigrationsTest extends TestCase {
+    private String url;
+    private Map<String, Object> properties;
+
+    @Override
+    protected void setUp() {
+        String name = "migrations-" + UUID.randomUUID();
+        url = "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        properties = TestDatabase.h2(name);
+        properties.put("javax.persistence.jdbc.url", url);
+        properties.put("hibernate.dialect", "org.hibernate.dialect.MySQL8Dialect");
+        properties.put("hibernate.hbm2ddl.auto", "validate");
+        properties.put(SchemaMigrations.ENABLED_PROPERTY, "true");
+    }
+
+    public void testFreshDatabaseMatchesMappings() throws Exception {
+        CompanyRepository repository = new CompanyRepository(properties);
+        try {
+            Department department = new Department("Legal");
+            repository.addDepartment(department);
+            repository.addEmployee(new Employee("Counsel", department));
+            assertEquals(Long.valueOf(1), repository.countEmployeesInDepartment(department.getId()));
+        } finally {
+            repository.close();
+        }
+        assertEquals(3, queryLong("SELECT COUNT(*) FROM flyway_schema_history WHERE success AND type = 'SQL'"));
+    }
+
+    public void testIdentitySchemaIsBaselinedAndGeneratorsCreatedPastIds() throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            // What hbm2ddl.auto=update made of the IDENTITY mappings: no generator tables.
+            statement.execute("CREATE TABLE department (id BIGINT NOT NULL AUTO_INCREMENT, name VARCHAR(255) NOT NULL, PRIMARY KEY (id))");
+            statement.execute("CREATE TABLE employee (id BIGINT NOT NULL AUTO_INCREMENT, name VARCHAR(255) NOT NULL, department_id BIGINT, PRIMARY KEY (id))");
+            statement.execute("ALTER TABLE employee ADD CONSTRAINT fk_employee_department FOREIGN KEY (department_id) REFERENCES department (id)");
+            // Rows from the IDENTITY era.
+            statement.execute("INSERT INTO department (id, name) VALUES (7, 'Archive')");
+            statement.execute("INSERT INTO employee (id, name, department_id) VALUES (120, 'Clerk', 7)");
+        }
+
+        CompanyRepository repository = new CompanyRepository(properties);
+        try {
+            Department department = new Department("New");
+            repository.addDepartment(department);
+            assertTrue(department.getId() > 7);
+            Employee employee = new Employee("Temp", department);
+            repository.addEmployee(employee);
+            assertTrue(employee.getId() > 120);
+        } finally {
+            repository.close();
+        }
+        assertTrue(queryLong("SELECT next_val FROM department_seq") >= 58);
+        assertTrue(queryLong("SELECT next_val FROM employee_seq") >= 171);
+    }
+
+    private long queryLong(String sql) throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+}
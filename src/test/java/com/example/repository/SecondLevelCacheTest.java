@@ -0,0 +1,82 @@
+package com.example.repository;
+
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import junit.framework.TestCase;
+import org.hibernate.stat.Statistics;
+
+import java.io.StringReader;
+import java.util.Map;
+
+public class SecondLevelCacheTest extends TestCase {
+    private CompanyRepository repository;
+    private Statistics statistics;
+
+    @Override
+    protected void setUp() {
+        Map<String, Object> properties = TestDatabase.h2WithCache();
+        properties.put("hibernate.generate_statistics", "true");
+        repository = new CompanyRepository(properties);
+        repository.addDepartment(new Department("Finance"));
+        repository.addDepartment(new Department("Legal"));
+        statistics = repository.getStatistics();
+        statistics.clear();
+    }
+
+    @Override
+    protected void tearDown() {
+        repository.close();
+    }
+
+    public void testRepeatedDepartmentListIsServedFromCache() {
+        repository.getAllDepartments();
+        long statements = statistics.getPrepareStatementCount();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(2, repository.getAllDepartments().size());
+        }
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(10, statistics.getQueryCacheHitCount());
+        assertTrue(repository.getCacheStatistics().containsKey("department-queries"));
+    }
+
+    public void testAddDepartmentInvalidatesCachedLists() {
+        assertEquals(2, repository.getAllDepartments().size());
+        assertEquals(1, repository.findDepartmentsByName("Fin").size());
+
+        repository.addDepartment(new Department("Finance Ops"));
+
+        assertEquals(3, repository.getAllDepartments().size());
+        assertEquals(2, repository.findDepartmentsByName("Fin").size());
+    }
+
+    public void testInsertsEvictCachedEmployeesCollection() throws Exception {
+        Department finance = repository.findDepartmentsByName("Finance").get(0);
+        repository.addEmployee(new Employee("Auditor", finance));
+        assertEquals(1, employeesOf(finance.getId()));
+        assertEquals(1, employeesOf(finance.getId()));
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+
+        repository.addEmployee(new Employee("Controller", finance));
+        assertEquals(2, employeesOf(finance.getId()));
+        repository.addEmployee("Treasurer", finance.getId());
+        assertEquals(3, employeesOf(finance.getId()));
+        try (WriteBehindQueue queue = new WriteBehindQueue(repository)) {
+            queue.addEmployee(new Employee("Clerk", finance));
+        }
+        assertEquals(4, employeesOf(finance.getId()));
+        new BulkImporter(repository).importCsv(new StringReader("Finance,Analyst\n"), null);
+        assertEquals(5, employeesOf(finance.getId()));
+
+        Department legal = repository.findDepartmentsByName("Legal").get(0);
+        assertEquals(0, employeesOf(legal.getId()));
+        repository.moveEmployees(finance.getId(), legal.getId());
+        assertEquals(0, employeesOf(finance.getId()));
+        assertEquals(5, employeesOf(legal.getId()));
+    }
+
+    /** Size of the department's employees collection, as the entity sees it. */
+    private int employeesOf(Long departmentId) {
+        return repository.inTransaction(em -> em.find(Department.class, departmentId).getEmployees().size());
+    }
+}
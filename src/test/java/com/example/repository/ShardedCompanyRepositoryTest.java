@@ -0,0 +1,117 @@
+package com.example.repository;
+
+import com.example.dto.EmployeeSummary;
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** Three shards, each its own embedded database. */
+public class ShardedCompanyRepositoryTest extends TestCase {
+    private static final int DEPARTMENTS = 6;
+    private static final int EMPLOYEES_PER_DEPARTMENT = 10;
+
+    private ShardedCompanyRepository repository;
+    private final List<Department> departments = new ArrayList<>();
+
+    @Override
+    protected void setUp() {
+        repository = new ShardedCompanyRepository(List.of(TestDatabase.h2(), TestDatabase.h2(), TestDatabase.h2()));
+        for (int d = 0; d < DEPARTMENTS; d++) {
+            Department department = new Department("Department " + d);
+            repository.addDepartment(department);
+            departments.add(department);
+            for (int i = 0; i < EMPLOYEES_PER_DEPARTMENT; i++) {
+                repository.addEmployee(new Employee("Worker " + d + "-" + i, department));
+            }
+        }
+    }
+
+    @Override
+    protected void tearDown() {
+        repository.close();
+    }
+
+    public void testDepartmentsAreOnEveryShardAndEmployeesOnOne() {
+        Set<Integer> used = new HashSet<>();
+        for (Department department : departments) {
+            int home = repository.shardIndex(department.getId());
+            used.add(home);
+            for (int s = 0; s < repository.getShardCount(); s++) {
+                CompanyRepository shard = repository.shard(s);
+                assertEquals(DEPARTMENTS, shard.getAllDepartments().size());
+                assertEquals(s == home ? EMPLOYEES_PER_DEPARTMENT : 0,
+                        shard.getEmployeesByDepartment(department.getId()).size());
+            }
+            assertEquals(EMPLOYEES_PER_DEPARTMENT, repository.getEmployeesByDepartment(department.getId()).size());
+            assertEquals(EMPLOYEES_PER_DEPARTMENT, (long) repository.countEmployeesInDepartment(department.getId()));
+        }
+        assertEquals(repository.getShardCount(), used.size());
+    }
+
+    public void testSearchFansOutAndAppliesGlobalLimit() {
+        assertEquals(DEPARTMENTS * EMPLOYEES_PER_DEPARTMENT, (long) repository.countEmployeesByName("Worker"));
+        assertEquals(DEPARTMENTS, repository.getHeadcounts().size());
+
+        List<EmployeeSummary> page = repository.findEmployeeSummariesByName("Worker", 25);
+        assertEquals(25, page.size());
+        Set<Long> departmentsSeen = new HashSet<>();
+        for (int i = 0; i < page.size(); i++) {
+            departmentsSeen.add(page.get(i).getDepartmentId());
+            if (i > 0) {
+                assertTrue(page.get(i - 1).getId() <= page.get(i).getId());
+            }
+        }
+        assertTrue(departmentsSeen.size() > 1);
+
+        List<Employee> employees = repository.findEmployeesByName("Worker 3-", 100);
+        assertEquals(EMPLOYEES_PER_DEPARTMENT, employees.size());
+        assertEquals("Department 3", employees.get(0).getDepartment().getName());
+    }
+
+    public void testSearchIncludesEmployeesWithoutDepartment() {
+        repository.addEmployee(new Employee("Contractor", null));
+        for (Department department : departments) {
+            repository.addEmployee(new Employee("Contractor " + department.getName(), department));
+        }
+
+        List<Employee> contractors = repository.findEmployeesByName("Contractor", 100);
+
+        assertEquals(DEPARTMENTS + 1, contractors.size());
+        assertEquals(1, contractors.stream().filter(e -> e.getDepartment() == null).count());
+        assertEquals(DEPARTMENTS, repository.findEmployeesByName("Contractor", DEPARTMENTS).size());
+    }
+
+    public void testShardsDoNotShareCachedEmployees() {
+        // Same region prefix on both: the sharded repository must still keep their caches apart.
+        Map<String, Object> first = TestDatabase.h2WithCache();
+        Map<String, Object> second = TestDatabase.h2WithCache();
+        second.put("hibernate.cache.region_prefix", first.get("hibernate.cache.region_prefix"));
+        ShardedCompanyRepository cached = new ShardedCompanyRepository(List.of(first, second));
+        try {
+            for (int d = 0; d < 2; d++) {
+                Department department = new Department("Cached " + d);
+                cached.addDepartment(department);
+                cached.addEmployee(new Employee("Cached worker " + d, department));
+            }
+            List<String> names = new ArrayList<>();
+            for (int s = 0; s < 2; s++) {
+                Long id = cached.shard(s).findEmployeeSummariesByName("Cached worker").get(0).getId();
+                for (int read = 0; read < 2; read++) {
+                    names.add(cached.shard(s).inTransaction(em -> em.find(Employee.class, id).getName()));
+                }
+            }
+
+            assertEquals(names.get(0), names.get(1));
+            assertEquals(names.get(2), names.get(3));
+            assertFalse(names.get(0).equals(names.get(2)));
+        } finally {
+            cached.close();
+        }
+    }
+}
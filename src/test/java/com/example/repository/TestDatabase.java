@@ -0,0 +1,48 @@
+package com.example.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Persistence property overrides that point {@code CompanyPU} at a private
+ * in-memory H2 database.
+ */
+final class TestDatabase {
+    private TestDatabase() {}
+
+    static Map<String, Object> h2() {
+        return h2("test-" + UUID.randomUUID());
+    }
+
+    static Map<String, Object> h2(String name) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("javax.persistence.jdbc.url", "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        properties.put("javax.persistence.jdbc.user", "sa");
+        properties.put("javax.persistence.jdbc.password", "");
+        properties.put("javax.persistence.jdbc.driver", "org.h2.Driver");
+        properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        properties.put("hibernate.show_sql", "false");
+        properties.put("hibernate.cache.use_second_level_cache", "false");
+        properties.put("hibernate.cache.use_query_cache", "false");
+        properties.put(CompanyRepository.NAME_INDEX_PROPERTY, "false");
+        properties.put(SchemaMigrations.ENABLED_PROPERTY, "false");
+        return properties;
+    }
+
+    /**
+     * Like {@link #h2()} but with the second-level and query caches on. Every
+     * repository in the JVM shares one JCache manager, so regions get a per-database
+     * prefix to keep test databases from seeing each other's entries.
+     */
+    static Map<String, Object> h2WithCache() {
+        String name = "test-" + UUID.randomUUID();
+        Map<String, Object> properties = h2(name);
+        properties.put("hibernate.cache.use_second_level_cache", "true");
+        properties.put("hibernate.cache.use_query_cache", "true");
+        properties.put("hibernate.cache.region_prefix", name);
+        properties.put("hibernate.javax.cache.missing_cache_strategy", "create");
+        return properties;
+    }
+}
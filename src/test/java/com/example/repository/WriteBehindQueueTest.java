@@ -0,0 +1,128 @@
+package com.example.repository;
+
+import com.example.entity.Department;
+import com.example.entity.Employee;
+import junit.framework.TestCase;
+import org.hibernate.stat.Statistics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class WriteBehindQueueTest extends TestCase {
+    private CompanyRepository repository;
+
+    @Override
+    protected void setUp() {
+        Map<String, Object> properties = TestDatabase.h2();
+        properties.put("hibernate.generate_statistics", "true");
+        repository = new CompanyRepository(properties);
+    }
+
+    @Override
+    protected void tearDown() {
+        repository.close();
+    }
+
+    public void testGroupsInsertsIntoFewTransactions() throws Exception {
+        Statistics statistics = repository.getStatistics();
+        statistics.clear();
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        try (WriteBehindQueue queue = new WriteBehindQueue(repository, 2_000, 500, 50)) {
+            Department department = new Department("Warehouse");
+            futures.add(queue.addDepartment(department));
+            for (int i = 0; i < 1_999; i++) {
+                futures.add(queue.addEmployee(new Employee("Picker " + i, department)));
+            }
+        }
+
+        HashSet<Long> employeeIds = new HashSet<>();
+        for (CompletableFuture<Long> future : futures.subList(1, futures.size())) {
+            assertTrue(future.isDone());
+            employeeIds.add(future.get());
+        }
+        assertEquals(1_999, employeeIds.size());
+        assertTrue("transactions: " + statistics.getTransactionCount(), statistics.getTransactionCount() <= 20);
+        Long departmentId = futures.get(0).get();
+        assertEquals(Long.valueOf(1_999), repository.countEmployeesInDepartment(departmentId));
+    }
+
+    public void testFailingItemDoesNotFailItsBatch() throws Exception {
+        CompletableFuture<Long> good;
+        CompletableFuture<Long> bad;
+        CompletableFuture<Long> alsoGood;
+        try (WriteBehindQueue queue = new WriteBehindQueue(repository, 10, 10, 1_000)) {
+            Department department = new Department("Dock");
+            queue.addDepartment(department);
+            good = queue.addEmployee(new Employee("Loader", department));
+            // References a department that was never saved.
+            bad = queue.addEmployee(new Employee("Ghost", new Department("Nowhere")));
+            alsoGood = queue.addEmployee(new Employee("Driver", department));
+        }
+
+        assertNotNull(good.get());
+        assertNotNull(alsoGood.get());
+        try {
+            bad.get();
+            fail("insert with an unsaved department should fail");
+        } catch (ExecutionException expected) {
+            // reported on its own future only
+        }
+        assertEquals(1, repository.getAllDepartments().size());
+        assertEquals(2, repository.findEmployeeSummariesByName("er").size());
+    }
+
+    public void testCloseDuringEnqueueCompletesEveryFuture() throws Exception {
+        Department department = new Department("Yard");
+        repository.addDepartment(department);
+        // A small queue, so producers are blocked in put() while close() runs.
+        WriteBehindQueue queue = new WriteBehindQueue(repository, 4, 4, 1);
+        List<CompletableFuture<Long>> futures = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch started = new CountDownLatch(4);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            Thread producer = new Thread(() -> {
+                started.countDown();
+                try {
+                    for (int i = 0; ; i++) {
+                        futures.add(queue.addEmployee(new Employee("Hand " + i, department)));
+                    }
+                } catch (IllegalStateException closed) {
+                    // enqueue after close is refused up front
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        started.await();
+        Thread.sleep(50);
+        queue.close();
+        for (Thread producer : producers) {
+            producer.join(10_000);
+            assertFalse("producer stuck in enqueue", producer.isAlive());
+        }
+
+        assertFalse(futures.isEmpty());
+        int written = 0;
+        for (CompletableFuture<Long> future : futures) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                written++;
+            } catch (ExecutionException failedAtClose) {
+                // also complete
+            } catch (TimeoutException e) {
+                fail("future accepted by enqueue never completed");
+            }
+        }
+        assertEquals(Long.valueOf(written), repository.countEmployeesInDepartment(department.getId()));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.search;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+
+public class TrigramIndexTest extends TestCase {
+    private TrigramIndex index;
+
+    @Override
+    protected void setUp() {
+        index = new TrigramIndex();
+        index.add(1, "Nguyễn Văn An");
+        index.add(2, "Trần Thị Bình");
+        index.add(3, "Nguyen Anh");
+        index.add(4, "Đặng Quốc");
+        index.markReady();
+    }
+
+    public void testMatchesIgnoringCaseAndAccents() {
+        assertTrue(Arrays.equals(new long[]{1, 3}, index.candidates("nguy")));
+        assertTrue(Arrays.equals(new long[]{4}, index.candidates("dang")));
+        assertTrue(Arrays.equals(new long[]{2}, index.candidates("BÌNH")));
+        assertEquals(0, index.candidates("xyz").length);
+    }
+
+    public void testCannotAnswerShortOrWildcardTerms() {
+        assertNull(index.candidates("an"));
+        assertNull(index.candidates("ng_yen"));
+    }
+
+    public void testRemoveAndVersion() {
+        long version = index.version();
+        index.remove(1, "Nguyễn Văn An");
+
+        assertTrue(Arrays.equals(new long[]{3}, index.candidates("nguyen")));
+        assertEquals(3, index.size());
+        assertTrue(index.version() > version);
+    }
+
+    public void testNotReadyUntilMarked() {
+        TrigramIndex building = new TrigramIndex();
+        building.add(1, "Someone");
+
+        assertNull(building.candidates("some"));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.ui;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncDataLoaderTest extends TestCase {
+    private final AsyncDataLoader loader = new AsyncDataLoader(1, 10, busy -> { });
+
+    @Override
+    protected void tearDown() {
+        loader.shutdown();
+    }
+
+    public void testExecutedWorkIsNeverSuperseded() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(3);
+        List<String> results = new CopyOnWriteArrayList<>();
+        // Occupies the only worker, so both writes below are still queued when the second arrives.
+        loader.execute(() -> release.await(5, TimeUnit.SECONDS), ok -> delivered.countDown(), error -> fail());
+        loader.execute(() -> "first", result -> {
+            results.add(result);
+            delivered.countDown();
+        }, error -> fail());
+        loader.execute(() -> "second", result -> {
+            results.add(result);
+            delivered.countDown();
+        }, error -> fail());
+        loader.cancel("");
+
+        release.countDown();
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first", "second"), results);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.ui;
+
+import com.example.dto.DepartmentSummary;
+import junit.framework.TestCase;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+public class DepartmentComboBoxModelTest extends TestCase {
+    private static final int DEPARTMENTS = 10_000;
+
+    private final List<DepartmentSummary> rows = new ArrayList<>();
+    private final List<Long> pagesRead = new ArrayList<>();
+    private final List<ListDataEvent> fired = new ArrayList<>();
+    private final DepartmentComboBoxModel model = new DepartmentComboBoxModel(new ImmediateLoader(), error -> fail(error.toString()));
+
+    @Override
+    protected void setUp() {
+        for (long id = 1; id <= DEPARTMENTS; id++) {
+            rows.add(new DepartmentSummary(id, "Department " + id));
+        }
+        DepartmentComboBoxModel.PageSource inMemory = DepartmentComboBoxModel.PageSource.of(rows);
+        model.setSource(new DepartmentComboBoxModel.PageSource() {
+            @Override
+            public long count() {
+                return inMemory.count();
+            }
+
+            @Override
+            public List<DepartmentSummary> page(long afterId, int limit) {
+                pagesRead.add(afterId);
+                return inMemory.page(afterId, limit);
+            }
+
+            @Override
+            public Long keyAfter(long afterId, int offset) {
+                return inMemory.keyAfter(afterId, offset);
+            }
+
+            @Override
+            public DepartmentSummary findByPrefix(String prefix, DepartmentSummary after) {
+                return inMemory.findByPrefix(prefix, after);
+            }
+
+            @Override
+            public long indexOf(DepartmentSummary department) {
+                return inMemory.indexOf(department);
+            }
+
+            @Override
+            public void added(DepartmentSummary department) {
+                inMemory.added(department);
+            }
+        });
+        model.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+                fired.add(e);
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+                fired.add(e);
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+                fired.add(e);
+            }
+        });
+    }
+
+    public void testLoadsOnlyVisitedPagesAndKeepsFewInMemory() {
+        assertEquals(DEPARTMENTS, model.getSize());
+        assertEquals(1L, (long) ((DepartmentSummary) model.getSelectedItem()).getId());
+        assertEquals(0, model.getSelectedIndex());
+        assertEquals(1, pagesRead.size());
+
+        // Jumping to the end seeks by id and reads only the last page.
+        assertSame(DepartmentComboBoxModel.LOADING, model.getElementAt(DEPARTMENTS - 1));
+        assertEquals("Department " + DEPARTMENTS, model.getElementAt(DEPARTMENTS - 1).getName());
+        assertEquals(2, pagesRead.size());
+
+        for (int index = 0; index < DEPARTMENTS; index += DepartmentComboBoxModel.PAGE_SIZE) {
+            model.getElementAt(index);
+            assertEquals(index + 1L, (long) model.getElementAt(index).getId());
+        }
+        int pages = DEPARTMENTS / DepartmentComboBoxModel.PAGE_SIZE;
+        assertEquals(1 + pages, pagesRead.size());
+        // The first page was evicted while scrolling, so it is read again.
+        model.getElementAt(0);
+        assertEquals(2 + pages, pagesRead.size());
+    }
+
+    public void testTypeAheadSelectsByPrefixAndCycles() {
+        model.selectByPrefix("department 99", false);
+        assertEquals("Department 99", ((DepartmentSummary) model.getSelectedItem()).getName());
+        assertEquals(98, model.getSelectedIndex());
+
+        model.selectByPrefix("department 99", true);
+        assertEquals("Department 990", ((DepartmentSummary) model.getSelectedItem()).getName());
+        assertEquals(989, model.getSelectedIndex());
+
+        model.selectByPrefix("nothing", false);
+        assertEquals("Department 990", ((DepartmentSummary) model.getSelectedItem()).getName());
+    }
+
+    public void testAddFiresOneEventAndKeepsSelection() {
+        model.getElementAt(DEPARTMENTS - 1);
+        Object selected = model.getSelectedItem();
+        fired.clear();
+
+        DepartmentSummary newest = new DepartmentSummary(DEPARTMENTS + 1L, "Newest");
+        model.add(newest);
+
+        assertEquals(1, fired.size());
+        assertEquals(ListDataEvent.INTERVAL_ADDED, fired.get(0).getType());
+        assertEquals(DEPARTMENTS, fired.get(0).getIndex0());
+        assertEquals(DEPARTMENTS + 1, model.getSize());
+        model.getElementAt(DEPARTMENTS);
+        assertSame(newest, model.getElementAt(DEPARTMENTS));
+        assertSame(selected, model.getSelectedItem());
+    }
+
+    public void testAddedRowSurvivesEvictionOfInMemorySource() {
+        model.getElementAt(DEPARTMENTS - 1);
+        DepartmentSummary newest = new DepartmentSummary(DEPARTMENTS + 1L, "Newest");
+        model.add(newest);
+
+        // Scroll until the last page is evicted, then come back to it.
+        for (int index = 0; index < DEPARTMENTS; index += DepartmentComboBoxModel.PAGE_SIZE) {
+            model.getElementAt(index);
+        }
+        model.getElementAt(DEPARTMENTS);
+        assertEquals(newest, model.getElementAt(DEPARTMENTS));
+        assertEquals(DEPARTMENTS, model.getSize() - 1);
+    }
+
+    /** Runs every request at once on the calling thread. */
+    private static final class ImmediateLoader extends AsyncDataLoader {
+        ImmediateLoader() {
+            super(1, 1, busy -> { });
+        }
+
+        @Override
+        public <T> void submit(String key, Callable<T> query, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+            T result;
+            try {
+                result = query.call();
+            } catch (Exception e) {
+                onError.accept(e);
+                return;
+            }
+            onSuccess.accept(result);
+        }
+
+        @Override
+        public void cancel(String keyPrefix) {
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.ui;
+
+import com.example.dto.EmployeeSummary;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EmployeePageCacheTest extends TestCase {
+    private final AtomicInteger loads = new AtomicInteger();
+
+    public void testServesRepeatedPagesFromCache() {
+        EmployeePageCache cache = new EmployeePageCache(4, Long.MAX_VALUE, 60_000);
+
+        List<EmployeeSummary> first = cache.page(1L, 0, 10, () -> rows(1L, 10));
+        List<EmployeeSummary> again = cache.page(1L, 0, 10, () -> rows(1L, 10));
+        cache.page(1L, 0, 20, () -> rows(1L, 20));
+
+        assertSame(first, again);
+        assertEquals(2, loads.get());
+    }
+
+    public void testEvictsLeastRecentlyUsedByCountAndBytes() {
+        EmployeePageCache byCount = new EmployeePageCache(2, Long.MAX_VALUE, 60_000);
+        byCount.page(1L, 0, 10, () -> rows(1L, 10));
+        byCount.page(2L, 0, 10, () -> rows(2L, 10));
+        byCount.page(1L, 0, 10, () -> rows(1L, 10));
+        byCount.page(3L, 0, 10, () -> rows(3L, 10));
+        assertEquals(2, byCount.size());
+        loads.set(0);
+        byCount.page(1L, 0, 10, () -> rows(1L, 10));
+        byCount.page(2L, 0, 10, () -> rows(2L, 10));
+        assertEquals(1, loads.get());
+
+        long onePage = EmployeePageCache.estimate(rows(1L, 10));
+        EmployeePageCache byBytes = new EmployeePageCache(100, onePage * 3, 60_000);
+        for (long department = 1; department <= 5; department++) {
+            long id = department;
+            byBytes.page(id, 0, 10, () -> rows(id, 10));
+        }
+        assertEquals(3, byBytes.size());
+        assertTrue(byBytes.estimatedBytes() <= onePage * 3);
+    }
+
+    public void testInvalidationDropsEntryAndPagesStillLoading() {
+        EmployeePageCache cache = new EmployeePageCache(4, Long.MAX_VALUE, 60_000);
+        cache.page(1L, 0, 10, () -> rows(1L, 10));
+        cache.invalidate(1L);
+        assertEquals(0, cache.size());
+
+        // A page read before an insert was announced must not be kept.
+        cache.page(2L, 0, 10, () -> {
+            cache.invalidate(2L);
+            return rows(2L, 10);
+        });
+        assertEquals(0, cache.size());
+    }
+
+    private List<EmployeeSummary> rows(Long departmentId, int count) {
+        loads.incrementAndGet();
+        List<EmployeeSummary> rows = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            rows.add(new EmployeeSummary(departmentId * 1_000 + id, "Employee " + id, departmentId, "Department"));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.ui;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+public class KeysetPagerTest extends TestCase {
+    private static final int PAGE_SIZE = 10;
+
+    private final DeferredLoader loader = new DeferredLoader();
+    private final List<String> errors = new ArrayList<>();
+    private final KeysetPager<Long> pager = new KeysetPager<>(loader, "test:", PAGE_SIZE, 2, id -> id,
+            (firstRow, lastRow, rows) -> { }, error -> errors.add(error.getMessage()));
+
+    private static KeysetPager.RowList<Long> ids(long count) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            ids.add(id);
+        }
+        return new KeysetPager.RowList<>(ids, id -> id);
+    }
+
+    public void testSeeksToDistantPageAndAppendsAfterIt() {
+        pager.setSource(ids(95));
+        pager.loadCount(count -> { });
+        loader.runAll();
+        assertEquals(95, pager.size());
+
+        assertNull(pager.getPage(9));
+        loader.runAll();
+        assertEquals(List.of(91L, 92L, 93L, 94L, 95L), pager.getPage(9));
+
+        assertTrue(pager.append(List.of(96L)));
+        assertEquals(96, pager.size());
+        assertEquals(95, pager.indexOfLoaded(96L));
+        // An id below a loaded one cannot go at the end.
+        assertFalse(pager.append(List.of(50L)));
+    }
+
+    public void testFailureFromReplacedSourceKeepsNewRequestInFlight() {
+        pager.setSource(new KeysetPager.RowList<Long>(List.of(), id -> id) {
+            @Override
+            public List<Long> page(long afterId, int limit) {
+                throw new IllegalStateException("old source failed");
+            }
+        });
+        pager.getPage(0);
+        Runnable staleFailure = loader.take();
+
+        pager.setSource(ids(5));
+        pager.loadCount(count -> { });
+        loader.runAll();
+        pager.getPage(0);
+        staleFailure.run();
+        // Still marked as loading, so asking again does not queue a second request.
+        pager.getPage(0);
+
+        assertEquals(1, loader.requests.size());
+        assertFalse(pager.append(List.of(6L)));
+        loader.runAll();
+        // The refused row was still handed to the in-memory source.
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), pager.getPage(0));
+        assertEquals(List.of("old source failed"), errors);
+    }
+
+    /** Queues requests until the test runs them; cancellation is left to the pager's generation check. */
+    private static final class DeferredLoader extends AsyncDataLoader {
+        final List<Runnable> requests = new ArrayList<>();
+
+        DeferredLoader() {
+            super(1, 1, busy -> { });
+        }
+
+        @Override
+        public <T> void submit(String key, Callable<T> query, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+            requests.add(() -> {
+                T result;
+                try {
+                    result = query.call();
+                } catch (Exception e) {
+                    onError.accept(e);
+                    return;
+                }
+                onSuccess.accept(result);
+            });
+        }
+
+        @Override
+        public void cancel(String keyPrefix) {
+        }
+
+        Runnable take() {
+            return requests.remove(0);
+        }
+
+        void runAll() {
+            while (!requests.isEmpty()) {
+                take().run();
+            }
+        }
+    }
+}